@@ -0,0 +1,34 @@
+package com.arbi.redis;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application, without the web server unless asked for, against the redis-server configured
+ * in {@code application.properties}. Request logging is turned down so it does not dominate the numbers.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> args = new ArrayList<>();
+        args.add("--logging.level.com.arbi.redis=WARN");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        var application = new SpringApplication(SpringRedisApplication.class);
+        application.setWebApplicationType(webApplicationType);
+        return application.run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,81 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of each algorithm against the bytes it saves, on encoded products carrying long descriptions
+ * and attribute lists. {@code bytesIn} and {@code bytesOut} are reported per second next to throughput;
+ * their ratio is the compression ratio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final String[] WORDS = {"mie", "ayam", "jakarta", "pedas", "original", "extra", "bakso",
+            "pangsit", "halal", "porsi", "besar", "kecil", "kuah", "goreng", "level"};
+
+    @Param({"LZF", "DEFLATE"})
+    private CompressionAlgorithm algorithm;
+
+    @Param({"512", "4096", "32768"})
+    private int size;
+
+    private ValueCompressor compressor;
+
+    private byte[] plain;
+
+    private byte[] compressed;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+
+        public long bytesIn;
+
+        public long bytesOut;
+    }
+
+    @Setup
+    public void setup() {
+        var registry = new CodecRegistry(List.of(new ProductCodec()));
+        plain = registry.encode(Product.builder().id("bench-1").name(description(size)).price(20_000L).build());
+        compressor = new ValueCompressor(algorithm, 0, 6);
+        compressed = compressor.compress(plain);
+    }
+
+    @Benchmark
+    public byte[] compress(Bytes bytes) {
+        byte[] result = compressor.compress(plain);
+        bytes.bytesIn += plain.length;
+        bytes.bytesOut += result.length;
+        return result;
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return compressor.decompress(compressed);
+    }
+
+    /**
+     * Text in the shape of a product description followed by {@code key=value} attributes.
+     */
+    private static String description(int size) {
+        var random = new Random(42);
+        var builder = new StringBuilder(size);
+        while (builder.length() < size / 2) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append(";attr").append(i % 20).append('=').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.substring(0, size);
+    }
+}
@@ -0,0 +1,69 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of {@code customers} messages to {@link CustomerListener} and {@code subscribers - 1}
+ * additional listeners, measured from PUBLISH until every listener has received the batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerPubSubBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    @Param({"1", "4"})
+    private int subscribers;
+
+    private ConfigurableApplicationContext context;
+
+    private StringRedisTemplate redisTemplate;
+
+    private final AtomicLong received = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        redisTemplate = context.getBean(StringRedisTemplate.class);
+
+        var container = context.getBean(RedisMessageListenerContainer.class);
+        var customerListener = context.getBean(CustomerListener.class);
+        for (int i = 0; i < subscribers; i++) {
+            boolean extra = i > 0;
+            container.addMessageListener((message, pattern) -> {
+                if (extra) {
+                    customerListener.onMessage(message, pattern);
+                }
+                received.incrementAndGet();
+            }, new ChannelTopic("customers"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publish() throws InterruptedException {
+        long target = received.get() + (long) BATCH * subscribers;
+        for (int i = 0; i < BATCH; i++) {
+            redisTemplate.convertAndSend("customers", "Arbi " + i);
+        }
+        while (received.get() < target) {
+            Thread.sleep(1);
+        }
+    }
+}
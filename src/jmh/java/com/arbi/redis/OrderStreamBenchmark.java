@@ -0,0 +1,95 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publish throughput through {@link BufferedOrderPublisher}, with {@value #IN_FLIGHT} publishes in flight
+ * so batches fill instead of every publish waiting out the linger, and end-to-end consumption
+ * throughput of the single-record container path against the batch listener mode. Every order gets
+ * its own id, so none is skipped as a duplicate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderStreamBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    private static final int IN_FLIGHT = 256;
+
+    @Param({"single", "batch"})
+    private String listenerMode;
+
+    private ConfigurableApplicationContext context;
+
+    private BufferedOrderPublisher publisher;
+
+    private StringRedisTemplate redisTemplate;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final String runId = UUID.randomUUID().toString();
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start(
+                "app.orders.listener-mode=" + listenerMode,
+                "app.orders.stream=orders-bench",
+                "app.orders.poll-timeout=100ms");
+        publisher = context.getBean(BufferedOrderPublisher.class);
+        redisTemplate = context.getBean(StringRedisTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisTemplate.delete("orders-bench");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public RecordId publish() {
+        List<CompletableFuture<RecordId>> futures = new ArrayList<>(IN_FLIGHT);
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            futures.add(publisher.publish(nextOrder()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return futures.get(IN_FLIGHT - 1).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void publishAndConsume() throws InterruptedException {
+        List<CompletableFuture<RecordId>> futures = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            futures.add(publisher.publish(nextOrder()));
+        }
+        RecordId last = futures.get(BATCH - 1).join();
+
+        while (!consumed(last)) {
+            Thread.sleep(1);
+        }
+    }
+
+    private Order nextOrder() {
+        return new Order(runId + "-" + sequence.incrementAndGet(), 1000L);
+    }
+
+    private boolean consumed(RecordId last) {
+        var group = redisTemplate.opsForStream().groups("orders-bench").get(0);
+        return group.lastDeliveredId().equals(last.getValue()) && group.pendingCount() == 0;
+    }
+}
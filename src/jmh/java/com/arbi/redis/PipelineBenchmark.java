@@ -0,0 +1,62 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code pipeline()} test from {@code RedisTest} with and without pipelining.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"4", "100"})
+    private int commands;
+
+    private ConfigurableApplicationContext context;
+
+    private StringRedisTemplate redisTemplate;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        redisTemplate = context.getBean(StringRedisTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void sequential() {
+        for (int i = 0; i < commands; i++) {
+            redisTemplate.opsForValue().set("bench" + i, "Arbi", Duration.ofSeconds(2));
+        }
+    }
+
+    @Benchmark
+    public List<Object> pipelined() {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (int i = 0; i < commands; i++) {
+                    operations.opsForValue().set("bench" + i, "Arbi", Duration.ofSeconds(2));
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /api/products/{id}} with {@value #CONNECTIONS} requests in flight, served by the blocking
+ * controller on Tomcat or by the reactive one on Netty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductApiBenchmark {
+
+    private static final int CONNECTIONS = 256;
+
+    @Param({"blocking", "reactive"})
+    private String api;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setup() {
+        var webApplicationType = "reactive".equals(api) ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET;
+        context = BenchmarkContext.start(webApplicationType, "app.products.api=" + api, "server.port=0");
+        context.getBean(ProductRepository.class)
+                .save(Product.builder().id("bench-api").name("Bench").price(1_000L).build());
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/products/bench-api")).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(ProductRepository.class).deleteById("bench-api");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONNECTIONS)
+    public void get() {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        responses.forEach(CompletableFuture::join);
+    }
+}
@@ -0,0 +1,83 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductRepositoryBenchmark {
+
+    private static final int BULK_SIZE = 1_000;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductRepository productRepository;
+
+    private Product product;
+
+    private List<Product> products;
+
+    private List<String> ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        productRepository = context.getBean(ProductRepository.class);
+
+        product = Product.builder().id("bench-1").name("Mie Ayam Jakarta").price(20_000L).build();
+        productRepository.save(product);
+
+        products = new ArrayList<>(BULK_SIZE);
+        ids = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            products.add(Product.builder().id("bench-bulk-" + i).name("Mie Ayam Jakarta").price(20_000L).ttl(600L).build());
+            ids.add("bench-bulk-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        productRepository.deleteAll(products);
+        productRepository.delete(product);
+        context.close();
+    }
+
+    @Benchmark
+    public Product save() {
+        return productRepository.save(product);
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        return productRepository.findById("bench-1");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public void saveLoop() {
+        for (Product bulk : products) {
+            productRepository.save(bulk);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Product> saveAll() {
+        return productRepository.saveAll(products);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Product> findAllById() {
+        return productRepository.findAllById(ids);
+    }
+}
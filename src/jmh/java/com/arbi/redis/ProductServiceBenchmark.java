@@ -0,0 +1,39 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"true", "false"})
+    private boolean nearCache;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("app.cache.near.enabled=" + nearCache);
+        productService = context.getBean(ProductService.class);
+        productService.getProduct("bench-hot");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return productService.getProduct("bench-hot");
+    }
+}
@@ -0,0 +1,78 @@
+package com.arbi.redis;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius searches clustered around a few hotspots, the way users crowd around the same districts, with
+ * and without the geohash cell cache. {@code redisSearches} is reported per second next to throughput;
+ * their ratio is the GEOSEARCH commands each search still sends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellerLocatorBenchmark {
+
+    private static final String KEY = "bench:sellers";
+
+    private static final int SELLERS = 5_000;
+
+    private static final double[][] HOTSPOTS = {
+            {106.8227, -6.1754}, {106.8456, -6.2088}, {106.7942, -6.2297}, {106.8650, -6.1751},
+            {106.8000, -6.1500}, {106.8837, -6.2615}, {106.7767, -6.1862}, {106.8270, -6.3000}};
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    /**
+     * Spread of the search points around their hotspot, in degrees.
+     */
+    @Param({"0.002", "0.01"})
+    private double spread;
+
+    private ConfigurableApplicationContext context;
+
+    private SellerLocator sellerLocator;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Commands {
+
+        public long redisSearches;
+    }
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("app.sellers.key=" + KEY, "app.sellers.cache-enabled=" + cache);
+        sellerLocator = context.getBean(SellerLocator.class);
+        var random = ThreadLocalRandom.current();
+        for (int i = 0; i < SELLERS; i++) {
+            sellerLocator.put("seller-" + i, 106.75 + random.nextDouble() * 0.15, -6.32 + random.nextDouble() * 0.18);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(StringRedisTemplate.class).delete(KEY);
+        context.close();
+    }
+
+    @Benchmark
+    public List<Seller> radius(Commands commands) {
+        var random = ThreadLocalRandom.current();
+        double[] hotspot = HOTSPOTS[random.nextInt(HOTSPOTS.length)];
+        long before = sellerLocator.getRedisSearches();
+        List<Seller> sellers = sellerLocator.radius(hotspot[0] + random.nextGaussian() * spread,
+                hotspot[1] + random.nextGaussian() * spread, 1 + random.nextInt(4) * 0.5, 20);
+        commands.redisSearches += sellerLocator.getRedisSearches() - before;
+        return sellers;
+    }
+}
@@ -0,0 +1,274 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * One append-only file of archived stream entries, memory-mapped at a fixed size and named after its
+ * first id. An entry is framed as {@code length, crc, id millis, id sequence, field count} followed by
+ * {@code key length, key, value length, value} per field; a zero length marks the end. Every
+ * {@code indexInterval}-th entry is noted in a sparse index of id and offset, appended to a {@code .idx}
+ * file next to the segment when it is forced, so a read can start close to any id. Opening a segment
+ * loads the index and scans only the entries after its last mark. Closing releases the file; the mapping
+ * goes once the buffer is garbage collected, which is fine for segments that are reopened rarely. Not
+ * thread-safe.
+ */
+public class ArchiveSegment implements Closeable {
+
+    static final String SUFFIX = ".seg";
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final int FRAME = 8;
+
+    private static final int INDEX_ENTRY = 20;
+
+    @FunctionalInterface
+    public interface EntryVisitor {
+
+        /**
+         * @return whether to continue with the next entry
+         */
+        boolean visit(RecordId id, Map<byte[], byte[]> fields);
+    }
+
+    private final Path path;
+
+    private final Path indexPath;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int indexInterval;
+
+    private final List<long[]> index = new ArrayList<>();
+
+    private int indexWritten;
+
+    private int position;
+
+    private long entries;
+
+    private RecordId lastId;
+
+    private ArchiveSegment(Path path, FileChannel channel, MappedByteBuffer buffer, int indexInterval) {
+        this.path = path;
+        this.indexPath = path.resolveSibling(path.getFileName().toString().replace(SUFFIX, INDEX_SUFFIX));
+        this.channel = channel;
+        this.buffer = buffer;
+        this.indexInterval = indexInterval;
+    }
+
+    public static ArchiveSegment create(Path directory, RecordId firstId, int size, int indexInterval) {
+        Path path = directory.resolve(String.format("%020d-%020d%s", firstId.getTimestamp(), firstId.getSequence(), SUFFIX));
+        try {
+            var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new ArchiveSegment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), indexInterval);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Opens an existing segment, for appending unless {@code readOnly}, and recovers its end: entries
+     * after the first torn or zero frame are ignored and overwritten by later appends.
+     */
+    public static ArchiveSegment open(Path path, int indexInterval, boolean readOnly) {
+        try {
+            var channel = readOnly
+                    ? FileChannel.open(path, StandardOpenOption.READ)
+                    : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            var mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+            var segment = new ArchiveSegment(path, channel, channel.map(mode, 0, channel.size()), indexInterval);
+            segment.recover();
+            return segment;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public RecordId getFirstId() {
+        return firstId(path);
+    }
+
+    /**
+     * The first id of a segment, read from its file name without opening it.
+     */
+    public static RecordId firstId(Path segment) {
+        String name = segment.getFileName().toString();
+        return RecordId.of(Long.parseLong(name.substring(0, 20)), Long.parseLong(name.substring(21, 41)));
+    }
+
+    /**
+     * The last entry written, or {@code null} while the segment is empty.
+     */
+    public RecordId getLastId() {
+        return lastId;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Appends an entry unless it no longer fits, in which case the segment is full.
+     */
+    public boolean append(RecordId id, Map<byte[], byte[]> fields) {
+        int length = 20;
+        for (var field : fields.entrySet()) {
+            length += 8 + field.getKey().length + field.getValue().length;
+        }
+        // keep room for the zero frame that marks the end
+        if (position + FRAME + length + 4 > buffer.capacity()) {
+            return false;
+        }
+
+        int start = position + FRAME;
+        buffer.position(start);
+        buffer.putLong(id.getTimestamp()).putLong(id.getSequence()).putInt(fields.size());
+        for (var field : fields.entrySet()) {
+            buffer.putInt(field.getKey().length).put(field.getKey());
+            buffer.putInt(field.getValue().length).put(field.getValue());
+        }
+        buffer.putInt(position, length);
+        buffer.putInt(position + 4, crc(start, length));
+
+        if (entries % indexInterval == 0) {
+            index.add(new long[]{id.getTimestamp(), id.getSequence(), position});
+        }
+        position = start + length;
+        buffer.putInt(position, 0);
+        entries++;
+        lastId = id;
+        return true;
+    }
+
+    /**
+     * Makes everything appended so far durable, segment first and then its new index marks.
+     */
+    public void force() {
+        buffer.force();
+        if (indexWritten == index.size()) {
+            return;
+        }
+        ByteBuffer marks = ByteBuffer.allocate((index.size() - indexWritten) * INDEX_ENTRY);
+        for (long[] mark : index.subList(indexWritten, index.size())) {
+            marks.putLong(mark[0]).putLong(mark[1]).putInt((int) mark[2]);
+        }
+        marks.flip();
+        try (var out = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (marks.hasRemaining()) {
+                out.write(marks);
+            }
+            out.force(true);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        indexWritten = index.size();
+    }
+
+    /**
+     * Visits entries from the first one at or after {@code from}, starting at the closest index mark.
+     */
+    public void read(RecordId from, EntryVisitor visitor) {
+        int offset = 0;
+        for (long[] mark : index) {
+            if (compare(mark[0], mark[1], from) > 0) {
+                break;
+            }
+            offset = (int) mark[2];
+        }
+
+        ByteBuffer view = buffer.duplicate();
+        while (offset < position) {
+            int length = view.getInt(offset);
+            view.position(offset + FRAME);
+            long millis = view.getLong();
+            long sequence = view.getLong();
+            offset += FRAME + length;
+            if (compare(millis, sequence, from) < 0) {
+                continue;
+            }
+
+            int count = view.getInt();
+            Map<byte[], byte[]> fields = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[view.getInt()];
+                view.get(key);
+                byte[] value = new byte[view.getInt()];
+                view.get(value);
+                fields.put(key, value);
+            }
+            if (!visitor.visit(RecordId.of(millis, sequence), fields)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void recover() throws IOException {
+        if (Files.exists(indexPath)) {
+            ByteBuffer marks = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            while (marks.remaining() >= INDEX_ENTRY) {
+                index.add(new long[]{marks.getLong(), marks.getLong(), marks.getInt()});
+            }
+            indexWritten = index.size();
+        }
+
+        // entries before the last mark are intact, they were forced before the mark was written
+        int offset = index.isEmpty() ? 0 : (int) index.get(index.size() - 1)[2];
+        entries = index.isEmpty() ? 0 : (long) (index.size() - 1) * indexInterval;
+        while (offset + FRAME <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + FRAME + length > buffer.capacity()
+                    || buffer.getInt(offset + 4) != crc(offset + FRAME, length)) {
+                break;
+            }
+            if (entries % indexInterval == 0 && entries / indexInterval >= index.size()) {
+                index.add(new long[]{buffer.getLong(offset + FRAME), buffer.getLong(offset + FRAME + 8), offset});
+            }
+            lastId = RecordId.of(buffer.getLong(offset + FRAME), buffer.getLong(offset + FRAME + 8));
+            offset += FRAME + length;
+            entries++;
+        }
+        position = offset;
+    }
+
+    private int crc(int start, int length) {
+        var crc = new CRC32C();
+        crc.update(buffer.slice(start, length));
+        return (int) crc.getValue();
+    }
+
+    private static int compare(long millis, long sequence, RecordId id) {
+        int result = Long.compare(millis, id.getTimestamp());
+        return result != 0 ? result : Long.compare(sequence, id.getSequence());
+    }
+}
@@ -0,0 +1,19 @@
+package com.arbi.redis;
+
+/**
+ * Compact binary encoding for one value type. Every encoded value is prefixed by
+ * {@link CodecRegistry#MAGIC}, the {@link #typeId()} and the {@link #version()} it was written with,
+ * so a newer codec can keep reading values written by an older one during a rolling upgrade.
+ */
+public interface BinaryCodec<T> {
+
+    Class<T> type();
+
+    byte typeId();
+
+    byte version();
+
+    void write(T value, BinaryOutput output);
+
+    T read(BinaryInput input, byte version);
+}
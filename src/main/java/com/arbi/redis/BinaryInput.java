@@ -0,0 +1,58 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+public class BinaryInput {
+
+    private final byte[] buffer;
+
+    private int position;
+
+    public BinaryInput(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public byte readByte() {
+        if (position >= buffer.length) {
+            throw new SerializationException("Unexpected end of binary value");
+        }
+        return buffer[position++];
+    }
+
+    public long readVarLong() {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new SerializationException("Malformed variable length number");
+    }
+
+    public Long readNullableLong() {
+        return readByte() == 0 ? null : readVarLong();
+    }
+
+    public String readString() {
+        // length + 1, 0 for null; checked as a long so corrupt lengths cannot wrap around
+        long encoded = readVarLong();
+        if (encoded == 0) {
+            return null;
+        }
+        if (encoded < 0) {
+            throw new SerializationException("Malformed string length " + (encoded - 1));
+        }
+        if (encoded - 1 > buffer.length - position) {
+            throw new SerializationException("Unexpected end of binary value");
+        }
+        int length = (int) (encoded - 1);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
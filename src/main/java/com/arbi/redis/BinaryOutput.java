@@ -0,0 +1,67 @@
+package com.arbi.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class BinaryOutput {
+
+    private byte[] buffer;
+
+    private int position;
+
+    public BinaryOutput(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    public void writeVarLong(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        writeByte((int) zigZag);
+    }
+
+    public void writeNullableLong(Long value) {
+        if (value == null) {
+            writeByte(0);
+        } else {
+            writeByte(1);
+            writeVarLong(value);
+        }
+    }
+
+    /**
+     * Writes the UTF-8 length plus one, so that zero can mark {@code null}.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
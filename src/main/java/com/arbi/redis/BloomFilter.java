@@ -0,0 +1,86 @@
+package com.arbi.redis;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-size Bloom filter over strings, sized from the expected insertions and false-positive rate.
+ * Not thread-safe; callers synchronize.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private long setBits;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = new long[(int) Math.max(1, (m + 63) / 64)];
+        bitCount = bits.length * 64L;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            long mask = 1L << index;
+            int word = (int) (index >>> 6);
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                setBits++;
+            }
+        }
+    }
+
+    /**
+     * False-positive probability at the current fill, {@code (set bits / bits) ^ hashes}.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+
+    public long sizeInBytes() {
+        return bits.length * 8L;
+    }
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * 64-bit FNV-1a with a murmur finalizer, so both halves are usable as independent hashes.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
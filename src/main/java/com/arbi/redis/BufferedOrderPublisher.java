@@ -0,0 +1,176 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts orders from any thread and writes them as pipelined XADD batches, flushed when a batch is
+ * full or the linger time of its first order has passed. Each order goes to the stream of its
+ * partition, in buffer order, and every XADD trims its stream approximately.
+ */
+@Component
+@Slf4j
+public class BufferedOrderPublisher implements SmartLifecycle {
+
+    @Autowired
+    private RedisTemplate<String, Object> binaryRedisTemplate;
+
+    @Autowired
+    private CodecHashMapper codecHashMapper;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private BlockingQueue<PendingOrder> buffer;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    /**
+     * Buffers the order. The returned future fails with {@link RejectedExecutionException} when the
+     * buffer is full, so callers can slow down or shed load.
+     */
+    public CompletableFuture<RecordId> publish(Order order) {
+        var pending = new PendingOrder(order, new CompletableFuture<>());
+        if (!running || !buffer.offer(pending)) {
+            rejected.incrementAndGet();
+            pending.future().completeExceptionally(new RejectedExecutionException("Order buffer is full"));
+        }
+        return pending.future();
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    public int getRemainingCapacity() {
+        return buffer.remainingCapacity();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(properties.getPublisher().getBufferCapacity());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("order-publisher").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            flusher.join(properties.getPollTimeout().toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        var publisher = properties.getPublisher();
+        long lingerNanos = publisher.getLinger().toNanos();
+        List<PendingOrder> batch = new ArrayList<>(publisher.getBatchSize());
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingOrder first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < publisher.getBatchSize()) {
+                    buffer.drainTo(batch, publisher.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= publisher.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingOrder next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingOrder> batch) {
+        XAddOptions options = addOptions();
+
+        try {
+            List<Object> ids = binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (PendingOrder pending : batch) {
+                    byte[] stream = partitions.streamFor(pending.order()).getBytes(StandardCharsets.UTF_8);
+                    var record = StreamRecords.rawBytes(codecHashMapper.toHash(pending.order())).withStreamKey(stream);
+                    connection.streamCommands().xAdd(record, options);
+                }
+                return null;
+            });
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete((RecordId) ids.get(i));
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Failed to publish {} orders", batch.size(), exception);
+            batch.forEach(pending -> pending.future().completeExceptionally(exception));
+        }
+    }
+
+    private XAddOptions addOptions() {
+        var publisher = properties.getPublisher();
+        return switch (publisher.getTrimStrategy()) {
+            case NONE -> XAddOptions.none();
+            case MAXLEN -> XAddOptions.maxlen(publisher.getMaxLength()).approximateTrimming(true);
+            case MINID -> XAddOptions.none()
+                    .minId(RecordId.of(System.currentTimeMillis() - publisher.getRetention().toMillis(), 0))
+                    .approximateTrimming(true);
+        };
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<RecordId> future) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces Boot's single {@link RedisCacheManager} with a near cache in front of it, while still
+ * honouring the {@code spring.cache.redis.*} settings. Redis round trips are timed per cache, hot keys
+ * are served from a local copy, large values are compressed per {@code app.compression.*} and the
+ * caches in {@code app.cache.stampede.cache-names} get stampede protection. Clearing a cache scans and
+ * unlinks its keys in batches, and {@code app.cache.regions.caches.*} override the TTL per cache.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties,
+                                                           CodecRedisSerializer codecRedisSerializer,
+                                                           ValueCompressor valueCompressor) {
+        var redis = cacheProperties.getRedis();
+        var serializer = new CompressingRedisSerializer(codecRedisSerializer, valueCompressor);
+        var config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+        if (redis.getTimeToLive() != null) {
+            config = config.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        return config;
+    }
+
+    @Bean
+    @Primary
+    public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                         RedisCacheConfiguration redisCacheConfiguration,
+                                         CacheProperties cacheProperties,
+                                         MeterRegistry meterRegistry,
+                                         StampedeProperties stampedeProperties,
+                                         StringRedisTemplate stringRedisTemplate,
+                                         InstanceId instanceId,
+                                         NearCacheProperties nearCacheProperties,
+                                         CacheInvalidationPublisher publisher,
+                                         HotKeyTracker hotKeyTracker,
+                                         HotKeyDetector hotKeyDetector,
+                                         CacheRegionProperties regionProperties) {
+        var batchStrategy = new ScanUnlinkBatchStrategy(regionProperties.getClearBatchSize());
+        Set<String> nearCacheNames = nearCacheProperties.isEnabled() ? Set.copyOf(nearCacheProperties.getCacheNames()) : Set.of();
+        RedisCacheWriter cacheWriter = new HotKeyCacheWriter(new TimedRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, batchStrategy), meterRegistry),
+                hotKeyDetector, nearCacheNames);
+        if (cacheProperties.getRedis().isEnableStatistics()) {
+            cacheWriter = cacheWriter.withStatisticsCollector(CacheStatisticsCollector.create());
+        }
+        Map<String, RedisCacheConfiguration> initialCaches = new LinkedHashMap<>();
+        cacheProperties.getCacheNames().forEach(name -> initialCaches.put(name, redisCacheConfiguration));
+        regionProperties.getCaches().forEach((name, region) -> {
+            Duration ttl = region.getTimeToLive() != null ? region.getTimeToLive()
+                    : redisCacheConfiguration.getTtlFunction().getTimeToLive(Object.class, null);
+            initialCaches.put(name, redisCacheConfiguration.entryTtl(new JitteredTtlFunction(ttl, region.getJitter())));
+        });
+
+        // kept out of the context so the cache metrics registrar only binds each cache once
+        var redisCacheManager = new StampedeCacheManager(cacheWriter, redisCacheConfiguration, initialCaches,
+                stampedeProperties, stringRedisTemplate, instanceId);
+        redisCacheManager.initializeCaches();
+        return new NearCacheManager(redisCacheManager, nearCacheProperties, publisher, hotKeyTracker);
+    }
+}
@@ -0,0 +1,7 @@
+package com.arbi.redis;
+
+/**
+ * Message broadcast on the near cache invalidation channel. A {@code null} key clears the whole cache.
+ */
+public record CacheInvalidation(String origin, String cacheName, String key) {
+}
@@ -0,0 +1,34 @@
+package com.arbi.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NearCacheProperties properties;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    public void publish(String cacheName, String key) {
+        try {
+            var invalidation = new CacheInvalidation(instanceId.get(), cacheName, key);
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), objectMapper.writeValueAsString(invalidation));
+        } catch (JsonProcessingException exception) {
+            log.warn("Cannot publish invalidation for {}::{}", cacheName, key, exception);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionEndpoint {
+
+    @Autowired
+    private CacheRegionManager cacheRegionManager;
+
+    @ReadOperation
+    public Map<String, Object> jobs() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        cacheRegionManager.getJobs().forEach((name, job) -> result.put(name, job.describe()));
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> clear(@Selector String cacheName) {
+        return cacheRegionManager.clear(cacheName).describe();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> cancel(@Selector String cacheName) {
+        return Map.of("cancelled", cacheRegionManager.cancel(cacheName));
+    }
+}
@@ -0,0 +1,202 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clears whole caches in the background with {@link ScanUnlinkBatchStrategy}, one job per cache at a
+ * time. Jobs report their progress and can be cancelled between batches; keys already unlinked stay
+ * gone. Once the Redis side is done, near cache entries and promoted hot-key copies are dropped too.
+ */
+@Component
+@Slf4j
+public class CacheRegionManager {
+
+    public enum State {
+        RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private NearCacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationPublisher publisher;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private CacheRegionProperties properties;
+
+    private final Map<String, ClearJob> jobs = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cache-clear-", 0).factory());
+
+    public static class ClearJob {
+
+        private final String cacheName;
+
+        private final Instant startedAt = Instant.now();
+
+        private final AtomicLong scanned = new AtomicLong();
+
+        private final AtomicLong unlinked = new AtomicLong();
+
+        private final CompletableFuture<State> result = new CompletableFuture<>();
+
+        private volatile boolean cancelled;
+
+        private volatile State state = State.RUNNING;
+
+        private volatile Instant finishedAt;
+
+        ClearJob(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getScanned() {
+            return scanned.get();
+        }
+
+        public long getUnlinked() {
+            return unlinked.get();
+        }
+
+        /**
+         * Completes with the final state once the job stops.
+         */
+        public CompletableFuture<State> getResult() {
+            return result;
+        }
+
+        public Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("cache", cacheName);
+            description.put("state", state);
+            description.put("scanned", scanned.get());
+            description.put("unlinked", unlinked.get());
+            description.put("startedAt", startedAt.toString());
+            description.put("elapsed", Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toString());
+            return description;
+        }
+
+        private void finish(State finalState) {
+            finishedAt = Instant.now();
+            state = finalState;
+            result.complete(finalState);
+        }
+    }
+
+    /**
+     * Starts clearing {@code cacheName}, or returns the job already clearing it.
+     */
+    public ClearJob clear(String cacheName) {
+        byte[] pattern = pattern(cacheName);
+        return jobs.compute(cacheName, (name, existing) -> {
+            if (existing != null && existing.getState() == State.RUNNING) {
+                return existing;
+            }
+            ClearJob job = new ClearJob(name);
+            executor.execute(() -> run(job, pattern));
+            return job;
+        });
+    }
+
+    /**
+     * Asks the running job for {@code cacheName} to stop after its current batch.
+     *
+     * @return whether a running job was found
+     */
+    public boolean cancel(String cacheName) {
+        ClearJob job = jobs.get(cacheName);
+        if (job == null || job.getState() != State.RUNNING) {
+            return false;
+        }
+        job.cancelled = true;
+        return true;
+    }
+
+    public Map<String, ClearJob> getJobs() {
+        return jobs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdown();
+    }
+
+    private void run(ClearJob job, byte[] pattern) {
+        var strategy = new ScanUnlinkBatchStrategy(properties.getClearBatchSize());
+        long pause = properties.getClearPause().toMillis();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            boolean completed = strategy.clean(connection, pattern, job.scanned, job.unlinked, () -> {
+                if (pause > 0 && !job.cancelled) {
+                    try {
+                        Thread.sleep(pause);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return !job.cancelled;
+            });
+            dropLocalCopies(job.cacheName);
+            log.info("Clear of cache {} {} after unlinking {} keys", job.cacheName,
+                    completed ? "finished" : "cancelled", job.getUnlinked());
+            job.finish(completed ? State.DONE : State.CANCELLED);
+        } catch (RuntimeException exception) {
+            log.warn("Clear of cache {} failed after unlinking {} keys", job.cacheName, job.getUnlinked(), exception);
+            job.finish(State.FAILED);
+        }
+    }
+
+    private void dropLocalCopies(String cacheName) {
+        if (cacheManager.getNearCaches().get(cacheName) instanceof NearCache nearCache) {
+            nearCache.invalidateLocal(null);
+            publisher.publish(cacheName, null);
+        }
+        hotKeyDetector.evictAll();
+    }
+
+    private byte[] pattern(String cacheName) {
+        // the Redis cache manager would create a cache for any unknown name
+        Cache cache = cacheManager.getCacheNames().contains(cacheName) ? cacheManager.getCache(cacheName) : null;
+        RedisCache redisCache = switch (cache) {
+            case NearCache nearCache -> nearCache.getRemoteCache();
+            case RedisCache plain -> plain;
+            case null, default -> throw new IllegalArgumentException("Unknown cache " + cacheName);
+        };
+        String prefix = redisCache.getCacheConfiguration().getKeyPrefixFor(cacheName);
+        if (prefix.isEmpty()) {
+            // without a prefix the pattern would match the whole keyspace
+            throw new IllegalStateException("Cache " + cacheName + " has no key prefix");
+        }
+        return (prefix + "*").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.regions")
+public class CacheRegionProperties {
+
+    /**
+     * SCAN COUNT hint and UNLINK batch size when clearing a cache.
+     */
+    private int clearBatchSize = 1000;
+
+    /**
+     * Pause between batches of a background clear, to leave Redis room for other clients.
+     */
+    private Duration clearPause = Duration.ZERO;
+
+    /**
+     * Overrides of {@code spring.cache.redis.time-to-live}, by cache name.
+     */
+    private Map<String, Region> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+
+        /**
+         * Falls back to {@code spring.cache.redis.time-to-live} when unset.
+         */
+        private Duration timeToLive;
+
+        /**
+         * Upper bound of a random extra lifetime added to every entry, so entries written together
+         * do not all expire together.
+         */
+        private Duration jitter = Duration.ZERO;
+    }
+}
@@ -0,0 +1,186 @@
+package com.arbi.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the near caches with the entries recorded by {@link HotKeyTracker} once the application has
+ * started. Keys are read from Redis in pipelined chunks of {@code chunk-size}, {@code parallelism}
+ * chunks at a time, for at most {@code time-budget}. It runs in the background, so liveness is never
+ * held up; {@link CacheWarmupHealthIndicator} keeps readiness down until it is over.
+ */
+@Component
+@Slf4j
+public class CacheWarmer implements SmartLifecycle {
+
+    public enum State {
+        PENDING, RUNNING, DONE, TIMED_OUT, FAILED
+    }
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private NearCacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private CacheWarmupProperties properties;
+
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    private volatile State state = State.PENDING;
+
+    private volatile long startedAt;
+
+    private volatile long finishedAt;
+
+    private volatile boolean running;
+
+    private Thread runner;
+
+    @Override
+    public void start() {
+        running = true;
+        if (!properties.isEnabled()) {
+            state = State.DONE;
+            return;
+        }
+        runner = Thread.ofPlatform().name("cache-warmup").daemon().start(this::warmUp);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (runner != null) {
+            runner.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getLoaded() {
+        return loaded.get();
+    }
+
+    public Duration getElapsed() {
+        if (startedAt == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((finishedAt != 0 ? finishedAt : System.nanoTime()) - startedAt);
+    }
+
+    public void warmUp() {
+        startedAt = System.nanoTime();
+        finishedAt = 0;
+        total.set(0);
+        loaded.set(0);
+        state = State.RUNNING;
+        long deadline = startedAt + properties.getTimeBudget().toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getParallelism(),
+                Thread.ofVirtual().name("cache-warmup-", 0).factory());
+
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (String cacheName : properties.getCacheNames()) {
+                if (!(cacheManager.getCache(cacheName) instanceof NearCache cache)) {
+                    continue;
+                }
+                Set<String> keys = redisTemplate.opsForZSet()
+                        .reverseRange(hotKeyTracker.hotKeysKey(cacheName), 0, properties.getMaxKeys() - 1L);
+                if (keys == null || keys.isEmpty()) {
+                    continue;
+                }
+                total.addAndGet(keys.size());
+                List<String> ordered = new ArrayList<>(keys);
+                for (int from = 0; from < ordered.size(); from += properties.getChunkSize()) {
+                    var chunk = ordered.subList(from, Math.min(from + properties.getChunkSize(), ordered.size()));
+                    chunks.add(workers.submit(() -> load(cache, chunk)));
+                }
+            }
+
+            State result = State.DONE;
+            for (Future<?> chunk : chunks) {
+                try {
+                    chunk.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException exception) {
+                    result = State.TIMED_OUT;
+                    break;
+                } catch (ExecutionException exception) {
+                    log.warn("Warm-up chunk failed", exception.getCause());
+                }
+            }
+            state = result;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            state = State.FAILED;
+        } catch (RuntimeException exception) {
+            log.warn("Cache warm-up failed", exception);
+            state = State.FAILED;
+        } finally {
+            workers.shutdownNow();
+            finishedAt = System.nanoTime();
+        }
+        log.info("Cache warm-up {}: {} of {} keys in {} ms", state, loaded.get(), total.get(), getElapsed().toMillis());
+    }
+
+    private void load(NearCache cache, List<String> keys) {
+        var configuration = cache.getRemoteCache().getCacheConfiguration();
+        String prefix = configuration.usePrefix() ? configuration.getKeyPrefixFor(cache.getName()) : "";
+
+        List<Object> values = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.stringCommands().get((prefix + key).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        for (int i = 0; i < keys.size(); i++) {
+            if (values.get(i) instanceof byte[] raw) {
+                Object value = configuration.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+                // null is a value this codec cannot read, e.g. one written by a newer version; only a
+                // NullValue is a cached absence
+                if (value == null) {
+                    continue;
+                }
+                cache.putLocal(keys.get(i), value instanceof NullValue ? null : value);
+                loaded.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service while {@link CacheWarmer} runs, up once it finished, timed out or failed. Only the
+ * readiness group includes it, so a slow warm-up never fails liveness.
+ */
+@Component
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Override
+    public Health health() {
+        var state = cacheWarmer.getState();
+        var builder = state == CacheWarmer.State.PENDING || state == CacheWarmer.State.RUNNING
+                ? Health.outOfService() : Health.up();
+        return builder
+                .withDetail("state", state)
+                .withDetail("loaded", cacheWarmer.getLoaded())
+                .withDetail("total", cacheWarmer.getTotal())
+                .withDetail("elapsedMs", cacheWarmer.getElapsed().toMillis())
+                .build();
+    }
+}
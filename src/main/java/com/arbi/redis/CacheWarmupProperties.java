@@ -0,0 +1,58 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.warmup")
+public class CacheWarmupProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Near caches whose hot keys are recorded and prefetched at startup.
+     */
+    private Set<String> cacheNames = new HashSet<>(Set.of("products"));
+
+    /**
+     * Prefix of the sorted set holding the hot keys of each cache, followed by the cache name.
+     */
+    private String hotKeyPrefix = "cache:hot:";
+
+    /**
+     * How often locally counted accesses are added to the sorted set.
+     */
+    private Duration recordInterval = Duration.ofSeconds(30);
+
+    /**
+     * Factor applied to every score once per {@code record-interval}, by one node across the cluster,
+     * so keys that cooled down drop out.
+     */
+    private double decay = 0.5;
+
+    /**
+     * Keys kept in the sorted set and prefetched at startup.
+     */
+    private int maxKeys = 1_000;
+
+    /**
+     * Distinct keys counted locally between two records; accesses to further keys are not counted.
+     */
+    private int maxTracked = 10_000;
+
+    /**
+     * Keys fetched per pipeline during warm-up.
+     */
+    private int chunkSize = 100;
+
+    private int parallelism = 4;
+
+    /**
+     * Longest readiness waits for the warm-up. Whatever is not loaded by then is loaded on demand.
+     */
+    private Duration timeBudget = Duration.ofSeconds(10);
+}
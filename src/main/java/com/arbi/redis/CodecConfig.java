@@ -0,0 +1,59 @@
+package com.arbi.redis;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    public CodecRedisSerializer codecRedisSerializer(CodecRegistry codecRegistry) {
+        return new CodecRedisSerializer(codecRegistry, getClass().getClassLoader());
+    }
+
+    @Bean
+    public ValueCompressor valueCompressor(CompressionProperties compressionProperties) {
+        return ValueCompressor.of(compressionProperties);
+    }
+
+    @Bean
+    public CodecHashMapper codecHashMapper(CodecRegistry codecRegistry, ValueCompressor valueCompressor) {
+        return new CodecHashMapper(codecRegistry, valueCompressor);
+    }
+
+    @Bean
+    public RedisTemplate<String, Object> binaryRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                             CodecRedisSerializer codecRedisSerializer) {
+        var template = new RedisTemplate<String, Object>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(codecRedisSerializer);
+        template.setHashKeySerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveBinaryRedisTemplate(ReactiveRedisConnectionFactory connectionFactory,
+                                                                             CodecRedisSerializer codecRedisSerializer) {
+        var context = RedisSerializationContext.<String, Object>newSerializationContext(RedisSerializer.string())
+                .value(codecRedisSerializer)
+                .hashKey(RedisSerializer.byteArray())
+                .hashValue(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
+    @Bean
+    public StreamOperations<String, byte[], byte[]> orderStreamOperations(RedisTemplate<String, Object> binaryRedisTemplate,
+                                                                          CodecHashMapper codecHashMapper) {
+        return binaryRedisTemplate.opsForStream(codecHashMapper);
+    }
+}
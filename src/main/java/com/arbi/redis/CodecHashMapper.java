@@ -0,0 +1,50 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.hash.HashMapper;
+import org.springframework.data.redis.hash.ObjectHashMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Stores a stream record value as a single binary {@code v} field, compressed when it is large. Records
+ * written field by field by {@link ObjectHashMapper} are still read through it.
+ */
+public class CodecHashMapper implements HashMapper<Object, byte[], byte[]> {
+
+    private static final byte[] FIELD = "v".getBytes(StandardCharsets.UTF_8);
+
+    private final CodecRegistry registry;
+
+    private final ValueCompressor compressor;
+
+    private final ObjectHashMapper fallback = ObjectHashMapper.getSharedInstance();
+
+    public CodecHashMapper(CodecRegistry registry, ValueCompressor compressor) {
+        this.registry = registry;
+        this.compressor = compressor;
+    }
+
+    @Override
+    public Map<byte[], byte[]> toHash(Object object) {
+        if (registry.canEncode(object.getClass())) {
+            return Map.of(FIELD, compressor.compress(registry.encode(object)));
+        }
+        return fallback.toHash(object);
+    }
+
+    @Override
+    public Object fromHash(Map<byte[], byte[]> hash) {
+        if (hash.size() == 1) {
+            var entry = hash.entrySet().iterator().next();
+            if (Arrays.equals(FIELD, entry.getKey())) {
+                byte[] value = compressor.decompress(entry.getValue());
+                if (CodecRegistry.isEncoded(value)) {
+                    return registry.decode(value);
+                }
+            }
+        }
+        return fallback.fromHash(hash);
+    }
+}
@@ -0,0 +1,46 @@
+package com.arbi.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Writes types known to the {@link CodecRegistry} in the compact binary format and everything else
+ * with JDK serialization. Reads both, so entries written before the codec was introduced stay readable.
+ * Values written by a newer codec read as absent, so during a rolling upgrade older nodes treat them as
+ * cache misses instead of failing.
+ */
+@Slf4j
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+
+    private final CodecRegistry registry;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CodecRedisSerializer(CodecRegistry registry, ClassLoader classLoader) {
+        this.registry = registry;
+        this.fallback = new JdkSerializationRedisSerializer(classLoader);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value != null && registry.canEncode(value.getClass())) {
+            return registry.encode(value);
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (CodecRegistry.isEncoded(bytes)) {
+            try {
+                return registry.decode(bytes);
+            } catch (UnknownCodecVersionException exception) {
+                log.debug("Treating value as absent: {}", exception.getMessage());
+                return null;
+            }
+        }
+        return fallback.deserialize(bytes);
+    }
+}
@@ -0,0 +1,72 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the {@link BinaryCodec} for a type when writing and for a type id when reading.
+ */
+@Component
+public class CodecRegistry {
+
+    public static final byte MAGIC = (byte) 0xB7;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private final Map<Class<?>, BinaryCodec<?>> byType = new HashMap<>();
+
+    private final BinaryCodec<?>[] byId = new BinaryCodec<?>[256];
+
+    public CodecRegistry(List<BinaryCodec<?>> codecs) {
+        for (BinaryCodec<?> codec : codecs) {
+            if (byId[codec.typeId() & 0xFF] != null) {
+                throw new IllegalStateException("Duplicate codec type id " + codec.typeId());
+            }
+            byType.put(codec.type(), codec);
+            byId[codec.typeId() & 0xFF] = codec;
+        }
+    }
+
+    public boolean canEncode(Class<?> type) {
+        return byType.containsKey(type);
+    }
+
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Object value) {
+        var codec = (BinaryCodec<Object>) byType.get(value.getClass());
+        if (codec == null) {
+            throw new SerializationException("No codec for " + value.getClass().getName());
+        }
+
+        var output = new BinaryOutput(64);
+        output.writeByte(MAGIC);
+        output.writeByte(codec.typeId());
+        output.writeByte(codec.version());
+        codec.write(value, output);
+        return output.toByteArray();
+    }
+
+    public Object decode(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new SerializationException("Value is not in codec format");
+        }
+
+        BinaryCodec<?> codec = byId[bytes[1] & 0xFF];
+        if (codec == null) {
+            throw new UnknownCodecVersionException("Unknown codec type id " + bytes[1]);
+        }
+        if (bytes[2] > codec.version()) {
+            throw new UnknownCodecVersionException("Value written by newer " + codec.type().getSimpleName()
+                    + " codec version " + bytes[2]);
+        }
+        return codec.read(new BinaryInput(bytes, HEADER_LENGTH), bytes[2]);
+    }
+}
@@ -0,0 +1,29 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Passes the output of another serializer through a {@link ValueCompressor}.
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+
+    private final ValueCompressor compressor;
+
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, ValueCompressor compressor) {
+        this.delegate = delegate;
+        this.compressor = compressor;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return compressor.compress(delegate.serialize(value));
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return delegate.deserialize(compressor.decompress(bytes));
+    }
+}
@@ -0,0 +1,106 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Algorithms available to {@link ValueCompressor}. The id is written into every compressed value, so
+ * ids must never be reused.
+ */
+public enum CompressionAlgorithm {
+
+    LZF(1, 88) {
+        @Override
+        byte[] compress(byte[] input, int level) {
+            return LzfCompressor.compress(input);
+        }
+
+        @Override
+        void decompress(byte[] input, int offset, byte[] output) {
+            LzfCompressor.decompress(input, offset, output);
+        }
+    },
+
+    DEFLATE(2, 1032) {
+        @Override
+        byte[] compress(byte[] input, int level) {
+            var deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(input);
+                deflater.finish();
+                var output = new ByteArrayOutputStream(input.length / 2 + 16);
+                byte[] buffer = new byte[Math.max(64, Math.min(input.length, 8192))];
+                while (!deflater.finished()) {
+                    output.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return output.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        void decompress(byte[] input, int offset, byte[] output) {
+            var inflater = new Inflater(true);
+            try {
+                inflater.setInput(input, offset, input.length - offset);
+                int written = 0;
+                while (written < output.length && !inflater.finished()) {
+                    int read = inflater.inflate(output, written, output.length - written);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    written += read;
+                }
+                if (written != output.length) {
+                    throw new SerializationException("Truncated DEFLATE value");
+                }
+            } catch (DataFormatException exception) {
+                throw new SerializationException("Corrupt DEFLATE value", exception);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    private final byte id;
+
+    private final int maxRatio;
+
+    CompressionAlgorithm(int id, int maxRatio) {
+        this.id = (byte) id;
+        this.maxRatio = maxRatio;
+    }
+
+    public byte id() {
+        return id;
+    }
+
+    /**
+     * The most bytes one compressed byte can decode to: a three-byte LZF back reference copies 264
+     * bytes, DEFLATE peaks at 1032:1.
+     */
+    long maxDecompressedLength(int compressedLength) {
+        return (long) compressedLength * maxRatio;
+    }
+
+    /**
+     * @param level only used by {@link #DEFLATE}, 1 (fastest) to 9 (smallest)
+     */
+    abstract byte[] compress(byte[] input, int level);
+
+    abstract void decompress(byte[] input, int offset, byte[] output);
+
+    static CompressionAlgorithm of(byte id) {
+        for (CompressionAlgorithm algorithm : values()) {
+            if (algorithm.id == id) {
+                return algorithm;
+            }
+        }
+        throw new SerializationException("Unknown compression algorithm id " + id);
+    }
+}
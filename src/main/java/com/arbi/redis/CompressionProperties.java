@@ -0,0 +1,25 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compression of cached values and order stream records. Compressed values stay readable when this is
+ * turned off or the algorithm changes.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.compression")
+public class CompressionProperties {
+
+    private boolean enabled = false;
+
+    private CompressionAlgorithm algorithm = CompressionAlgorithm.LZF;
+
+    /**
+     * Serialized values smaller than this are stored as they are.
+     */
+    private DataSize threshold = DataSize.ofBytes(512);
+
+    private int deflateLevel = 6;
+}
@@ -0,0 +1,81 @@
+package com.arbi.redis;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Count-min sketch with conservative update: a row is only raised as far as the new minimum, which
+ * keeps over-estimates of cold keys that share cells with hot ones low. Not thread-safe; callers
+ * synchronize.
+ */
+public class CountMinSketch {
+
+    private final long[][] counters;
+
+    private final int width;
+
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.counters = new long[depth][width];
+    }
+
+    /**
+     * Counts one occurrence of {@code key} and returns its new estimate.
+     */
+    public long add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][index(h1, h2, row)]);
+        }
+        estimate++;
+        for (int row = 0; row < counters.length; row++) {
+            int index = index(h1, h2, row);
+            if (counters[row][index] < estimate) {
+                counters[row][index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][index(h1, h2, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Ages every counter, so the sketch follows recent traffic rather than all traffic since startup.
+     */
+    public void halve() {
+        for (long[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+    }
+
+    private int index(int h1, int h2, int row) {
+        return ((h1 + row * h2) & Integer.MAX_VALUE) % width;
+    }
+
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
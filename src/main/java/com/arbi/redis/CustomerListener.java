@@ -1,16 +1,38 @@
 package com.arbi.redis;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 @Slf4j
 public class CustomerListener implements MessageListener {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    /**
+     * Counters by raw channel name, so a message costs neither a meter lookup nor decoding the channel.
+     */
+    private final Map<ByteBuffer, Counter> received = new ConcurrentHashMap<>();
+
     @Override
     public void onMessage(Message message, byte[] pattern) {
-        log.info("Receive message : {}", new String(message.getBody()));
+        received.computeIfAbsent(ByteBuffer.wrap(message.getChannel()), channel -> meterRegistry.counter(
+                "pubsub.received", "channel", StandardCharsets.UTF_8.decode(channel.duplicate()).toString())).increment();
+        latencyRecorder.record(LatencyRecorder.Flow.CUSTOMERS, LatencyRecorder.stampOf(message.getBody()));
+        log.info("Receive message : {}", LatencyRecorder.unstamped(message.getBody()));
     }
 }
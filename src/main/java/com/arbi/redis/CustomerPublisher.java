@@ -16,6 +16,7 @@ public class CustomerPublisher {
 
     @Scheduled(fixedRate = 10L, timeUnit = TimeUnit.SECONDS)
     public void publish() {
-        redisTemplate.convertAndSend("customers", "Arbi " + UUID.randomUUID().toString());
+        redisTemplate.convertAndSend("customers",
+                LatencyRecorder.stamp("Arbi " + UUID.randomUUID(), LatencyRecorder.nowMicros()));
     }
 }
@@ -0,0 +1,94 @@
+package com.arbi.redis;
+
+import java.util.Arrays;
+
+/**
+ * Base32 geohash cells. A hash of {@code n} characters names a cell of {@code 5n} interleaved
+ * longitude/latitude bits, starting with longitude; at 6 characters a cell is about 1.2 by 0.6 km.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private static final int[] DECODE = new int['z' + 1];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    public static String encode(double longitude, double latitude, int precision) {
+        double minLon = -180, maxLon = 180, minLat = -90, maxLat = 90;
+        var hash = new StringBuilder(precision);
+        boolean even = true;
+        int bits = 0, value = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = value << 1 | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = value << 1 | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            even = !even;
+            if (++bits == 5) {
+                hash.append(BASE32[value]);
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Bounds of the cell as {@code {minLongitude, minLatitude, maxLongitude, maxLatitude}}.
+     */
+    public static double[] bounds(String hash) {
+        double minLon = -180, maxLon = 180, minLat = -90, maxLat = 90;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int value = c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = (value >> bit & 1) == 1;
+                if (even) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                even = !even;
+            }
+        }
+        return new double[]{minLon, minLat, maxLon, maxLat};
+    }
+}
@@ -0,0 +1,139 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reports every cache read to the {@link HotKeyDetector} and answers reads of promoted keys from their
+ * local copy. Writes through this node drop the copy; writes through other nodes show up once it expires.
+ * Caches behind a {@link NearCache} get no copies: the near cache already holds hot entries and drops
+ * them on invalidation, and a copy beneath it would hand the stale value straight back.
+ */
+public class HotKeyCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+
+    private final HotKeyDetector detector;
+
+    private final Set<String> nearCacheNames;
+
+    public HotKeyCacheWriter(RedisCacheWriter delegate, HotKeyDetector detector, Set<String> nearCacheNames) {
+        this.delegate = delegate;
+        this.detector = detector;
+        this.nearCacheNames = nearCacheNames;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        String hotKey = hotKey(key);
+        detector.record(hotKey);
+        if (nearCacheNames.contains(name)) {
+            return delegate.get(name, key);
+        }
+        if (detector.getCopy(hotKey) instanceof byte[] copy) {
+            return copy;
+        }
+        byte[] value = delegate.get(name, key);
+        detector.putCopy(hotKey, value);
+        return value;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        String hotKey = hotKey(key);
+        detector.record(hotKey);
+        if (nearCacheNames.contains(name)) {
+            return delegate.get(name, key, ttl);
+        }
+        if (detector.getCopy(hotKey) instanceof byte[] copy) {
+            return copy;
+        }
+        byte[] value = delegate.get(name, key, ttl);
+        detector.putCopy(hotKey, value);
+        return value;
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key) {
+        return retrieve(name, key, null);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        String hotKey = hotKey(key);
+        detector.record(hotKey);
+        boolean copies = !nearCacheNames.contains(name);
+        if (copies && detector.getCopy(hotKey) instanceof byte[] copy) {
+            return CompletableFuture.completedFuture(copy);
+        }
+        var retrieved = ttl != null ? delegate.retrieve(name, key, ttl) : delegate.retrieve(name, key);
+        if (!copies) {
+            return retrieved;
+        }
+        return retrieved.thenApply(value -> {
+            detector.putCopy(hotKey, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+        detector.evict(hotKey(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl).whenComplete((result, error) -> detector.evict(hotKey(key)));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        detector.evict(hotKey(key));
+        return existing;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+        detector.evict(hotKey(key));
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+        detector.evictAll();
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new HotKeyCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector), detector,
+                nearCacheNames);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    private static String hotKey(byte[] key) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,200 @@
+package com.arbi.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.keyvalue.core.event.KeyValueEvent;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples Redis key accesses of the cache and repository paths into a {@link CountMinSketch} and keeps
+ * the top {@code top-k} keys. A key whose estimate crosses {@code promote-threshold} is promoted: for
+ * {@code promotion-time} its reads are served from a local copy that lives {@code copy-ttl}, so a single
+ * hot key costs each node one Redis read per {@code copy-ttl} instead of one per request. Local writes
+ * drop the copy at once.
+ */
+@Component
+@Slf4j
+public class HotKeyDetector implements SchedulingConfigurer {
+
+    public record HotKey(String key, long estimate, boolean promoted) {
+    }
+
+    private record Ranked(String key, long count) {
+    }
+
+    private static final Comparator<Ranked> RANKING = Comparator.comparingLong(Ranked::count).thenComparing(Ranked::key);
+
+    @Autowired
+    private HotKeyProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Long> topCounts = new HashMap<>();
+
+    private final TreeSet<Ranked> top = new TreeSet<>(RANKING);
+
+    private CountMinSketch sketch;
+
+    private Cache<String, Boolean> promoted;
+
+    private Cache<String, Object> copies;
+
+    private Counter promotions;
+
+    private Counter copyHits;
+
+    @PostConstruct
+    public void init() {
+        sketch = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+        promoted = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getPromotionTime())
+                .maximumSize(properties.getMaximumCopies())
+                .build();
+        copies = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getCopyTtl())
+                .maximumSize(properties.getMaximumCopies())
+                .build();
+        promotions = Counter.builder("hotkeys.promotions")
+                .description("Keys promoted to a local copy")
+                .register(meterRegistry);
+        copyHits = Counter.builder("hotkeys.copy.hits")
+                .description("Reads of promoted keys served without Redis")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (properties.isEnabled()) {
+            taskRegistrar.addFixedRateTask(this::decay, properties.getDecayInterval());
+        }
+    }
+
+    public void record(String key) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        double sampleRate = properties.getSampleRate();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        long estimate;
+        synchronized (this) {
+            estimate = sketch.add(key);
+            rank(key, estimate);
+        }
+        if (estimate / sampleRate >= properties.getPromoteThreshold()) {
+            if (promoted.getIfPresent(key) == null) {
+                promotions.increment();
+                log.info("Promoting hot key {} to a local copy", key);
+            }
+            promoted.put(key, Boolean.TRUE);
+        }
+    }
+
+    public boolean isPromoted(String key) {
+        return promoted.getIfPresent(key) != null;
+    }
+
+    /**
+     * The local copy of a promoted key, or {@code null}.
+     */
+    public Object getCopy(String key) {
+        Object copy = copies.getIfPresent(key);
+        if (copy != null) {
+            copyHits.increment();
+        }
+        return copy;
+    }
+
+    /**
+     * Keeps {@code value} as the local copy of {@code key} if the key is promoted.
+     */
+    public void putCopy(String key, Object value) {
+        if (value != null && isPromoted(key)) {
+            copies.put(key, value);
+        }
+    }
+
+    public void evict(String key) {
+        copies.invalidate(key);
+    }
+
+    public void evictAll() {
+        copies.invalidateAll();
+    }
+
+    /**
+     * The top keys, hottest first, with estimates scaled up by the sample rate.
+     */
+    public synchronized List<HotKey> top() {
+        List<HotKey> result = new ArrayList<>(top.size());
+        for (Ranked ranked : top.descendingSet()) {
+            result.add(new HotKey(ranked.key(), Math.round(ranked.count() / properties.getSampleRate()),
+                    isPromoted(ranked.key())));
+        }
+        return result;
+    }
+
+    public List<String> promotedKeys() {
+        return new ArrayList<>(promoted.asMap().keySet());
+    }
+
+    public synchronized void decay() {
+        sketch.halve();
+        List<Ranked> halved = new ArrayList<>(top.size());
+        for (Ranked ranked : top) {
+            if (ranked.count() > 1) {
+                halved.add(new Ranked(ranked.key(), ranked.count() >>> 1));
+            }
+        }
+        top.clear();
+        topCounts.clear();
+        for (Ranked ranked : halved) {
+            top.add(ranked);
+            topCounts.put(ranked.key(), ranked.count());
+        }
+    }
+
+    @EventListener
+    public void onDelete(KeyValueEvent.AfterDeleteEvent<?> event) {
+        evict(event.getKeyspace() + ":" + event.getKey());
+    }
+
+    @EventListener
+    public void onDropKeyspace(KeyValueEvent.AfterDropKeySpaceEvent<?> event) {
+        evictAll();
+    }
+
+    private void rank(String key, long estimate) {
+        Long previous = topCounts.get(key);
+        if (previous != null) {
+            top.remove(new Ranked(key, previous));
+        } else if (top.size() >= properties.getTopK()) {
+            if (top.first().count() >= estimate) {
+                return;
+            }
+            Ranked coldest = top.pollFirst();
+            topCounts.remove(coldest.key());
+        }
+        top.add(new Ranked(key, estimate));
+        topCounts.put(key, estimate);
+    }
+}
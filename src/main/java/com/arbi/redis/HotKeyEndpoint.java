@@ -0,0 +1,28 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private HotKeyProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        return Map.of(
+                "sampleRate", properties.getSampleRate(),
+                "promoteThreshold", properties.getPromoteThreshold(),
+                "top", hotKeyDetector.top(),
+                "promoted", hotKeyDetector.promotedKeys());
+    }
+}
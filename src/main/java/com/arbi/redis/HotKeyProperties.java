@@ -0,0 +1,49 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.hotkeys")
+public class HotKeyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Share of key accesses fed into the sketch. Estimates are scaled back up by it.
+     */
+    private double sampleRate = 0.1;
+
+    private int sketchWidth = 2048;
+
+    private int sketchDepth = 4;
+
+    /**
+     * Keys reported by the {@code hotkeys} endpoint.
+     */
+    private int topK = 20;
+
+    /**
+     * How often all counts are halved, so an estimate is roughly the accesses of the last two intervals.
+     */
+    private Duration decayInterval = Duration.ofSeconds(10);
+
+    /**
+     * Estimated accesses that promote a key to a local copy.
+     */
+    private long promoteThreshold = 5_000L;
+
+    /**
+     * How long a key stays promoted after it last crossed the threshold.
+     */
+    private Duration promotionTime = Duration.ofMinutes(1);
+
+    /**
+     * Lifetime of a local copy. Writes from other nodes become visible after at most this long.
+     */
+    private Duration copyTtl = Duration.ofSeconds(1);
+
+    private long maximumCopies = 1_000L;
+}
@@ -0,0 +1,146 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts near cache lookups per key in memory and periodically adds the counts to a sorted set per
+ * cache, {@code <hot-key-prefix><cache>}, with one script call. Existing scores are decayed once per
+ * {@code record-interval}, by whichever node records first and takes the {@code {<set>}:decay} lease,
+ * and the set is trimmed to {@code max-keys}, so it always holds the keys that were hot lately across
+ * all nodes.
+ */
+@Component
+@Slf4j
+public class HotKeyTracker implements SchedulingConfigurer {
+
+    /**
+     * KEYS: hot key set, decay lease. ARGV: instance id, lease millis, decay, max keys, then key and
+     * count pairs.
+     */
+    private static final String RECORD = """
+            if redis.call('set', KEYS[2], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                redis.call('zunionstore', KEYS[1], 1, KEYS[1], 'WEIGHTS', ARGV[3])
+            end
+            for i = 5, #ARGV, 2 do
+                redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            redis.call('zremrangebyrank', KEYS[1], 0, -(tonumber(ARGV[4]) + 1))
+            return 1
+            """;
+
+    /**
+     * Counts swapped out by the last flush, with the sums recorded then, so increments that landed
+     * after the swap are recorded by the next flush.
+     */
+    private record Retired(Map<String, LongAdder> counts, Map<String, Long> recorded) {
+    }
+
+    @Autowired
+    private CacheWarmupProperties properties;
+
+    @Autowired
+    private LuaScriptRegistry scriptRegistry;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    private final Map<String, Map<String, LongAdder>> counts = new ConcurrentHashMap<>();
+
+    private final Map<String, Retired> retired = new ConcurrentHashMap<>();
+
+    private LuaScript record;
+
+    @PostConstruct
+    public void init() {
+        record = scriptRegistry.register("hot-keys-record", RECORD);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (properties.isEnabled()) {
+            taskRegistrar.addFixedDelayTask(this::flush, properties.getRecordInterval());
+        }
+    }
+
+    public void record(String cacheName, String key) {
+        if (!properties.isEnabled() || !properties.getCacheNames().contains(cacheName)) {
+            return;
+        }
+        Map<String, LongAdder> cache = counts.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        LongAdder count = cache.get(key);
+        if (count == null) {
+            if (cache.size() >= properties.getMaxTracked()) {
+                return;
+            }
+            count = cache.computeIfAbsent(key, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public String hotKeysKey(String cacheName) {
+        return properties.getHotKeyPrefix() + cacheName;
+    }
+
+    public synchronized void flush() {
+        for (String cacheName : List.copyOf(counts.keySet())) {
+            // recorders switch to the new map at once; the few still holding the old one are caught up next time
+            Map<String, LongAdder> swapped = counts.put(cacheName, new ConcurrentHashMap<>());
+            Map<String, Long> drained = new HashMap<>();
+            Retired previous = retired.get(cacheName);
+            if (previous != null) {
+                previous.counts().forEach((key, count) -> {
+                    long late = count.sum() - previous.recorded().getOrDefault(key, 0L);
+                    if (late > 0) {
+                        drained.merge(key, late, Long::sum);
+                    }
+                });
+            }
+            Map<String, Long> recorded = new HashMap<>();
+            swapped.forEach((key, count) -> {
+                long sum = count.sum();
+                recorded.put(key, sum);
+                drained.merge(key, sum, Long::sum);
+            });
+            retired.put(cacheName, new Retired(swapped, recorded));
+            if (drained.isEmpty()) {
+                continue;
+            }
+
+            String zset = hotKeysKey(cacheName);
+            List<byte[]> keysAndArgs = new ArrayList<>(4 + drained.size() * 2);
+            keysAndArgs.add(bytes(zset));
+            keysAndArgs.add(bytes("{" + zset + "}:decay"));
+            keysAndArgs.add(bytes(instanceId.get()));
+            keysAndArgs.add(bytes(String.valueOf(properties.getRecordInterval().toMillis())));
+            keysAndArgs.add(bytes(String.valueOf(properties.getDecay())));
+            keysAndArgs.add(bytes(String.valueOf(properties.getMaxKeys())));
+            drained.forEach((key, count) -> {
+                keysAndArgs.add(bytes(key));
+                keysAndArgs.add(bytes(String.valueOf(count)));
+            });
+            try {
+                scriptRegistry.execute(record, ReturnType.INTEGER, 2, keysAndArgs.toArray(byte[][]::new));
+            } catch (RuntimeException exception) {
+                log.warn("Could not record hot keys of {}", cacheName, exception);
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,180 @@
+package com.arbi.redis;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog with Redis's parameters: 2^14 registers, MurmurHash64A seeded like PFADD, and the same
+ * cardinality estimator, so registers built here merge into a Redis key with PFMERGE and count exactly
+ * as if every element had been sent with PFADD. Holds one byte per register, 16 KiB whatever the
+ * cardinality. Not thread-safe; callers synchronize.
+ */
+public class HyperLogLog {
+
+    public static final int P = 14;
+
+    public static final int REGISTERS = 1 << P;
+
+    private static final int Q = 64 - P;
+
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * Size of a dense Redis HLL string: the header followed by 6-bit registers.
+     */
+    public static final int DENSE_SIZE = HEADER_SIZE + (REGISTERS * 6 + 7) / 8;
+
+    private static final double ALPHA_INF = 0.721347520444481703680;
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    public void add(String element) {
+        add(element.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds {@code element}, returning whether a register changed and the estimate may have grown.
+     */
+    public boolean add(byte[] element) {
+        long hash = murmurHash64A(element, 0xadc83b19L);
+        int index = (int) (hash & (REGISTERS - 1));
+        hash >>>= P;
+        hash |= 1L << Q;
+        byte count = (byte) (Long.numberOfTrailingZeros(hash) + 1);
+        if (count > registers[index]) {
+            registers[index] = count;
+            return true;
+        }
+        return false;
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * The estimate PFCOUNT would return for these registers.
+     */
+    public long estimate() {
+        int[] histogram = new int[Q + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        double m = REGISTERS;
+        double z = m * tau((m - histogram[Q + 1]) / m);
+        for (int j = Q; j >= 1; j--) {
+            z += histogram[j];
+            z *= 0.5;
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(ALPHA_INF * m * m / z);
+    }
+
+    /**
+     * The registers as a dense Redis HLL string, with the cached cardinality marked stale so Redis
+     * recomputes it.
+     */
+    public byte[] toDense() {
+        byte[] dense = new byte[DENSE_SIZE];
+        dense[0] = 'H';
+        dense[1] = 'Y';
+        dense[2] = 'L';
+        dense[3] = 'L';
+        dense[15] = (byte) 0x80;
+        for (int i = 0; i < REGISTERS; i++) {
+            int value = registers[i];
+            int bit = i * 6;
+            int index = HEADER_SIZE + bit / 8;
+            int shift = bit & 7;
+            dense[index] |= (byte) (value << shift);
+            if (shift > 2 && index + 1 < DENSE_SIZE) {
+                dense[index + 1] |= (byte) (value >>> (8 - shift));
+            }
+        }
+        return dense;
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (previous != z);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (previous != z);
+        return z / 3;
+    }
+
+    /**
+     * MurmurHash64A as Redis implements it, reading 8-byte blocks little-endian.
+     */
+    static long murmurHash64A(byte[] data, long seed) {
+        final long m = 0xc6a4a7935bd1e995L;
+        final int r = 47;
+        int length = data.length;
+        long h = seed ^ (length * m);
+
+        int blocks = length - (length & 7);
+        for (int i = 0; i < blocks; i += 8) {
+            long k = (data[i] & 0xffL)
+                    | (data[i + 1] & 0xffL) << 8
+                    | (data[i + 2] & 0xffL) << 16
+                    | (data[i + 3] & 0xffL) << 24
+                    | (data[i + 4] & 0xffL) << 32
+                    | (data[i + 5] & 0xffL) << 40
+                    | (data[i + 6] & 0xffL) << 48
+                    | (data[i + 7] & 0xffL) << 56;
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h ^= k;
+            h *= m;
+        }
+
+        int tail = length & 7;
+        if (tail > 0) {
+            for (int i = tail - 1; i >= 0; i--) {
+                h ^= (data[blocks + i] & 0xffL) << (8 * i);
+            }
+            h *= m;
+        }
+
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+        return h;
+    }
+}
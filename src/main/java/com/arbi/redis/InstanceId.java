@@ -0,0 +1,23 @@
+package com.arbi.redis;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identity of this JVM among all running replicas.
+ */
+@Component
+public class InstanceId {
+
+    private final String value = UUID.randomUUID().toString();
+
+    public String get() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
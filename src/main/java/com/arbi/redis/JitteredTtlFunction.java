@@ -0,0 +1,21 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.cache.RedisCacheWriter.TtlFunction;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A fixed lifetime plus a uniformly random extra of up to {@code jitter}, drawn per write.
+ */
+public record JitteredTtlFunction(Duration timeToLive, Duration jitter) implements TtlFunction {
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        long bound = jitter.toMillis();
+        if (timeToLive.isZero() || bound <= 0) {
+            return timeToLive;
+        }
+        return timeToLive.plusMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure Redis publishes the {@code expired} key events that {@link NearCacheInvalidationListener}
+ * and {@link ProductIndexExpiryListener} follow. Redis sends none by default, so on startup the missing
+ * flags are added to {@code notify-keyspace-events}, keeping those already set. With
+ * {@code app.redis.keyspace-notifications.configure=false}, or where CONFIG is not allowed, missing
+ * flags are only logged.
+ */
+@Component
+@Slf4j
+public class KeyspaceNotifications {
+
+    static final String PARAMETER = "notify-keyspace-events";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private KeyspaceNotificationsProperties properties;
+
+    @PostConstruct
+    public void init() {
+        String flags;
+        try {
+            flags = redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.serverCommands().getConfig(PARAMETER).getProperty(PARAMETER, ""));
+        } catch (RuntimeException exception) {
+            log.warn("Cannot read {}, expired keys may stay in near caches and the product index: {}",
+                    PARAMETER, exception.getMessage());
+            return;
+        }
+        if (publishesExpired(flags)) {
+            return;
+        }
+        if (!properties.isConfigure()) {
+            log.warn("{} is '{}' without Ex, expired keys stay in near caches and the product index",
+                    PARAMETER, flags);
+            return;
+        }
+
+        String configured = withExpired(flags);
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.serverCommands().setConfig(PARAMETER, configured);
+                return null;
+            });
+            log.info("Set {} from '{}' to '{}'", PARAMETER, flags, configured);
+        } catch (RuntimeException exception) {
+            log.warn("Cannot set {} to '{}', expired keys stay in near caches and the product index: {}",
+                    PARAMETER, configured, exception.getMessage());
+        }
+    }
+
+    /**
+     * Whether {@code flags} publish {@code expired} key events: the keyevent class and expired events,
+     * directly or through the {@code A} alias.
+     */
+    static boolean publishesExpired(String flags) {
+        return flags.contains("E") && (flags.contains("x") || flags.contains("A"));
+    }
+
+    static String withExpired(String flags) {
+        String result = flags.contains("E") ? flags : flags + "E";
+        return publishesExpired(result) ? result : result + "x";
+    }
+}
@@ -0,0 +1,15 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.redis.keyspace-notifications")
+public class KeyspaceNotificationsProperties {
+
+    /**
+     * Adds the {@code E} and {@code x} flags to {@code notify-keyspace-events} on startup when they are
+     * missing. Turn off where CONFIG SET is not allowed and set the flags on the server instead.
+     */
+    private boolean configure = true;
+}
@@ -0,0 +1,99 @@
+package com.arbi.redis;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * End-to-end latency from publish to listener, in microseconds, per flow. Listeners report every
+ * message carrying a publish timestamp; nothing is recorded until a run has {@link #start() started}.
+ * Recording is lock-free, so it is safe on listener threads.
+ */
+@Component
+public class LatencyRecorder {
+
+    public enum Flow {
+        ORDERS, CUSTOMERS
+    }
+
+    private static final byte SEPARATOR = '|';
+
+    private final Map<Flow, Recorder> recorders = new EnumMap<>(Flow.class);
+
+    private volatile boolean enabled;
+
+    public LatencyRecorder() {
+        for (Flow flow : Flow.values()) {
+            recorders.put(flow, new Recorder(3));
+        }
+    }
+
+    public void start() {
+        reset();
+        enabled = true;
+    }
+
+    public void stop() {
+        enabled = false;
+    }
+
+    /**
+     * Drops everything recorded so far, e.g. at the end of a warm-up.
+     */
+    public void reset() {
+        recorders.values().forEach(Recorder::reset);
+    }
+
+    public void record(Flow flow, Long publishedAt) {
+        if (enabled && publishedAt != null) {
+            recorders.get(flow).recordValue(Math.max(0, nowMicros() - publishedAt));
+        }
+    }
+
+    /**
+     * Everything recorded since the previous call or {@link #reset()}.
+     */
+    public Histogram interval(Flow flow) {
+        return recorders.get(flow).getIntervalHistogram();
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    /**
+     * Prefixes a pub/sub body with its publish time, {@code <micros>|<body>}.
+     */
+    public static String stamp(String body, long publishedAt) {
+        return publishedAt + "|" + body;
+    }
+
+    /**
+     * The publish time of a {@link #stamp(String, long) stamped} body, or {@code null}.
+     */
+    public static Long stampOf(byte[] body) {
+        long value = 0;
+        for (int i = 0; i < body.length && i < 20; i++) {
+            byte b = body[i];
+            if (b == SEPARATOR) {
+                return i > 0 ? value : null;
+            }
+            if (b < '0' || b > '9') {
+                return null;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return null;
+    }
+
+    static String unstamped(byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8);
+        return stampOf(body) != null ? text.substring(text.indexOf(SEPARATOR) + 1) : text;
+    }
+}
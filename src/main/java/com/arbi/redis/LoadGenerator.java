@@ -0,0 +1,203 @@
+package com.arbi.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes orders and {@code customers} messages at fixed rates for {@code app.load.duration}. The
+ * schedule is open loop: message {@code n} is due at {@code start + n / rate} whether or not earlier
+ * sends have finished, and it carries that due time as its publish timestamp. A stalled Redis therefore
+ * shows up as latency of every message that should have been sent meanwhile, instead of silently
+ * lowering the rate (coordinated omission). The report is logged at the end of the run and served by
+ * the {@code loadgen} actuator endpoint.
+ */
+@Component
+@Profile("loadgen")
+@Slf4j
+public class LoadGenerator implements SmartLifecycle {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    @Autowired
+    private BufferedOrderPublisher bufferedOrderPublisher;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @Autowired
+    private LoadProperties properties;
+
+    private final Map<LatencyRecorder.Flow, Counts> counts = new LinkedHashMap<>();
+
+    private volatile Map<String, Object> report = Map.of("state", "running");
+
+    private volatile boolean running;
+
+    private ExecutorService senders;
+
+    private Thread runner;
+
+    private record Counts(AtomicLong sent, AtomicLong failed, AtomicLong maxLagMicros) {
+
+        Counts() {
+            this(new AtomicLong(), new AtomicLong(), new AtomicLong());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Sender {
+
+        void send(long sequence, long publishedAt);
+    }
+
+    @Override
+    public void start() {
+        for (LatencyRecorder.Flow flow : LatencyRecorder.Flow.values()) {
+            counts.put(flow, new Counts());
+        }
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("load-sender-", 0).factory());
+        running = true;
+        runner = Thread.ofPlatform().name("load-generator").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        runner.interrupt();
+        senders.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+
+    private void run() {
+        log.info("Load run: {} orders/s, {} customers/s for {}", properties.getOrderRate(),
+                properties.getCustomerRate(), properties.getDuration());
+        latencyRecorder.start();
+        long start = System.nanoTime();
+        long startMicros = LatencyRecorder.nowMicros();
+        Thread orders = Thread.ofPlatform().name("load-orders").start(() ->
+                drive(LatencyRecorder.Flow.ORDERS, properties.getOrderRate(), start, startMicros, this::sendOrder));
+        Thread customers = Thread.ofPlatform().name("load-customers").start(() ->
+                drive(LatencyRecorder.Flow.CUSTOMERS, properties.getCustomerRate(), start, startMicros, this::sendCustomer));
+
+        try {
+            Thread.sleep(properties.getWarmup());
+            latencyRecorder.reset();
+            orders.join();
+            customers.join();
+            Thread.sleep(properties.getDrain());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            orders.interrupt();
+            customers.interrupt();
+        } finally {
+            latencyRecorder.stop();
+        }
+        report();
+    }
+
+    private void drive(LatencyRecorder.Flow flow, double rate, long start, long startMicros, Sender sender) {
+        if (rate <= 0) {
+            return;
+        }
+        long intervalNanos = Math.round(1_000_000_000L / rate);
+        long end = start + properties.getDuration().toNanos();
+        Counts flowCounts = counts.get(flow);
+
+        for (long sequence = 0; running && !Thread.currentThread().isInterrupted(); sequence++) {
+            long due = start + sequence * intervalNanos;
+            if (due >= end) {
+                return;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                flowCounts.maxLagMicros().accumulateAndGet(-wait / 1_000, Math::max);
+            }
+            sender.send(sequence, startMicros + (due - start) / 1_000);
+        }
+    }
+
+    private void sendOrder(long sequence, long publishedAt) {
+        Counts orderCounts = counts.get(LatencyRecorder.Flow.ORDERS);
+        bufferedOrderPublisher.publish(new Order(loadId(), properties.getAmount(), publishedAt))
+                .whenComplete((id, error) -> (error == null ? orderCounts.sent() : orderCounts.failed()).incrementAndGet());
+    }
+
+    private void sendCustomer(long sequence, long publishedAt) {
+        Counts customerCounts = counts.get(LatencyRecorder.Flow.CUSTOMERS);
+        senders.execute(() -> {
+            try {
+                redisTemplate.convertAndSend("customers", LatencyRecorder.stamp(loadId(), publishedAt));
+                customerCounts.sent().incrementAndGet();
+            } catch (RuntimeException exception) {
+                customerCounts.failed().incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * A fresh random id per message. OrderListener records latency only after its dedup check, so ids
+     * repeated by an earlier run within the dedup window would be skipped and never measured. Drawn
+     * from ThreadLocalRandom rather than UUID.randomUUID, whose shared SecureRandom would throttle
+     * the sender threads at high rates.
+     */
+    private static String loadId() {
+        var random = ThreadLocalRandom.current();
+        return "load-" + new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private void report() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", "done");
+        result.put("warmup", properties.getWarmup().toString());
+        result.put("duration", properties.getDuration().toString());
+        counts.forEach((flow, flowCounts) -> {
+            Histogram histogram = latencyRecorder.interval(flow);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("sent", flowCounts.sent().get());
+            summary.put("failed", flowCounts.failed().get());
+            summary.put("measured", histogram.getTotalCount());
+            summary.put("maxScheduleLagMs", flowCounts.maxLagMicros().get() / MICROS_PER_MILLI);
+            summary.put("meanMs", histogram.getMean() / MICROS_PER_MILLI);
+            for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+                summary.put("p" + percentile + "Ms", histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+            }
+            summary.put("maxMs", histogram.getMaxValue() / MICROS_PER_MILLI);
+            result.put(flow.name().toLowerCase(), summary);
+
+            var distribution = new ByteArrayOutputStream();
+            histogram.outputPercentileDistribution(new PrintStream(distribution, true, StandardCharsets.UTF_8), MICROS_PER_MILLI);
+            log.info("{} end-to-end latency (ms): {}\n{}", flow, summary, distribution.toString(StandardCharsets.UTF_8));
+        });
+        report = result;
+    }
+}
@@ -0,0 +1,23 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Profile("loadgen")
+@Endpoint(id = "loadgen")
+public class LoadGeneratorEndpoint {
+
+    @Autowired
+    private LoadGenerator loadGenerator;
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        return loadGenerator.getReport();
+    }
+}
@@ -0,0 +1,41 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@code loadgen} profile.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.load")
+public class LoadProperties {
+
+    /**
+     * Orders published per second; 0 disables the flow.
+     */
+    private double orderRate = 1_000;
+
+    /**
+     * {@code customers} messages published per second; 0 disables the flow.
+     */
+    private double customerRate = 1_000;
+
+    /**
+     * Length of the run, warm-up included.
+     */
+    private Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * Latencies of the first part of the run are discarded.
+     */
+    private Duration warmup = Duration.ofSeconds(10);
+
+    /**
+     * How long to wait for in-flight messages after the last one is published.
+     */
+    private Duration drain = Duration.ofSeconds(5);
+
+    private long amount = 1_000L;
+}
@@ -0,0 +1,21 @@
+package com.arbi.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A script of the {@link LuaScriptRegistry}, with the SHA1 Redis knows it by.
+ */
+public record LuaScript(String name, byte[] source, String sha) {
+
+    public static LuaScript of(String name, String source) {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        try {
+            return new LuaScript(name, bytes, HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(bytes)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scripts registered by name, loaded with SCRIPT LOAD when the context starts and called with
+ * EVALSHA, so only the digest goes over the wire. A NOSCRIPT reply, after a SCRIPT FLUSH, a restart or
+ * a failover to a replica that never saw the script, reloads it and retries once.
+ */
+@Component
+@Slf4j
+public class LuaScriptRegistry implements SmartLifecycle {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, LuaScript> scripts = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    /**
+     * Registers {@code source} under {@code name}, loading it right away once the registry runs.
+     */
+    public LuaScript register(String name, String source) {
+        LuaScript script = LuaScript.of(name, source);
+        LuaScript existing = scripts.putIfAbsent(name, script);
+        if (existing != null) {
+            if (!existing.sha().equals(script.sha())) {
+                throw new IllegalStateException("Script " + name + " is already registered with other source");
+            }
+            return existing;
+        }
+        if (running) {
+            load(script);
+        }
+        return script;
+    }
+
+    public Map<String, LuaScript> getScripts() {
+        return scripts;
+    }
+
+    @Override
+    public void start() {
+        scripts.values().forEach(this::load);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(LuaScript script, ReturnType returnType, int numKeys, byte[]... keysAndArgs) {
+        return redisTemplate.execute((RedisCallback<T>) connection -> {
+            try {
+                return connection.scriptingCommands().evalSha(script.sha(), returnType, numKeys, keysAndArgs);
+            } catch (RuntimeException exception) {
+                if (!isNoScript(exception)) {
+                    throw exception;
+                }
+                meterRegistry.counter("redis.scripts.reloads", "script", script.name()).increment();
+                load(connection, script);
+                return connection.scriptingCommands().evalSha(script.sha(), returnType, numKeys, keysAndArgs);
+            }
+        });
+    }
+
+    /**
+     * Runs {@code callback} as one pipeline. Scripts in a pipeline cannot be retried one at a time, so a
+     * NOSCRIPT reply reloads every registered script and runs the whole pipeline once more; the
+     * callback must be safe to repeat.
+     */
+    public List<Object> executePipelined(RedisTemplate<?, ?> template, RedisCallback<?> callback,
+                                         RedisSerializer<?> resultSerializer) {
+        try {
+            return template.executePipelined(callback, resultSerializer);
+        } catch (RuntimeException exception) {
+            if (!isNoScript(exception)) {
+                throw exception;
+            }
+            scripts.values().forEach(script -> {
+                meterRegistry.counter("redis.scripts.reloads", "script", script.name()).increment();
+                load(script);
+            });
+            return template.executePipelined(callback, resultSerializer);
+        }
+    }
+
+    private void load(LuaScript script) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            load(connection, script);
+            return null;
+        });
+    }
+
+    private void load(RedisConnection connection, LuaScript script) {
+        String sha = connection.scriptingCommands().scriptLoad(script.source());
+        if (!script.sha().equals(sha)) {
+            throw new IllegalStateException("Redis digests script " + script.name() + " as " + sha);
+        }
+        log.debug("Loaded script {} as {}", script.name(), sha);
+    }
+
+    static boolean isNoScript(Throwable exception) {
+        if (exception instanceof RedisPipelineException pipeline) {
+            for (Object result : pipeline.getPipelineResult()) {
+                if (result instanceof Throwable failure && isNoScript(failure)) {
+                    return true;
+                }
+            }
+        }
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
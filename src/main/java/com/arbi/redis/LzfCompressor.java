@@ -0,0 +1,118 @@
+package com.arbi.redis;
+
+import java.util.Arrays;
+
+/**
+ * Pure-Java LZF: literal runs of up to 32 bytes and back references of up to 264 bytes within the
+ * previous 8 KiB. Much cheaper than DEFLATE on CPU, at a lower ratio.
+ */
+public final class LzfCompressor {
+
+    private static final int HASH_BITS = 14;
+
+    private static final int MAX_LITERAL = 32;
+
+    private static final int MAX_OFFSET = 1 << 13;
+
+    private static final int MAX_MATCH = 264;
+
+    private LzfCompressor() {
+    }
+
+    public static byte[] compress(byte[] input) {
+        byte[] output = new byte[input.length + input.length / MAX_LITERAL + 16];
+        int[] table = new int[1 << HASH_BITS];
+        int in = 0;
+        // out[out - literals - 1] is the control byte of the open literal run
+        int out = 1;
+        int literals = 0;
+
+        while (in < input.length - 2) {
+            int slot = hash(input, in);
+            int ref = table[slot] - 1;
+            table[slot] = in + 1;
+            int offset = in - ref - 1;
+            if (ref >= 0 && offset < MAX_OFFSET
+                    && input[ref] == input[in] && input[ref + 1] == input[in + 1] && input[ref + 2] == input[in + 2]) {
+                int maxLength = Math.min(input.length - in, MAX_MATCH);
+                int length = 3;
+                while (length < maxLength && input[ref + length] == input[in + length]) {
+                    length++;
+                }
+
+                if (literals > 0) {
+                    output[out - literals - 1] = (byte) (literals - 1);
+                } else {
+                    out--;
+                }
+                int encoded = length - 2;
+                if (encoded < 7) {
+                    output[out++] = (byte) ((encoded << 5) | (offset >>> 8));
+                } else {
+                    output[out++] = (byte) ((7 << 5) | (offset >>> 8));
+                    output[out++] = (byte) (encoded - 7);
+                }
+                output[out++] = (byte) offset;
+                out++;
+                literals = 0;
+                in += length;
+            } else {
+                output[out++] = input[in++];
+                if (++literals == MAX_LITERAL) {
+                    output[out - literals - 1] = (byte) (literals - 1);
+                    out++;
+                    literals = 0;
+                }
+            }
+        }
+        while (in < input.length) {
+            output[out++] = input[in++];
+            if (++literals == MAX_LITERAL) {
+                output[out - literals - 1] = (byte) (literals - 1);
+                out++;
+                literals = 0;
+            }
+        }
+
+        if (literals > 0) {
+            output[out - literals - 1] = (byte) (literals - 1);
+        } else {
+            out--;
+        }
+        return Arrays.copyOf(output, out);
+    }
+
+    /**
+     * Decodes {@code input} from {@code offset} until {@code output} is full.
+     */
+    public static void decompress(byte[] input, int offset, byte[] output) {
+        int in = offset;
+        int out = 0;
+        while (out < output.length) {
+            int control = input[in++] & 0xFF;
+            if (control < MAX_LITERAL) {
+                int length = control + 1;
+                System.arraycopy(input, in, output, out, length);
+                in += length;
+                out += length;
+                continue;
+            }
+
+            int length = control >>> 5;
+            if (length == 7) {
+                length += input[in++] & 0xFF;
+            }
+            length += 2;
+            int ref = out - ((control & 0x1F) << 8) - (input[in++] & 0xFF) - 1;
+            // byte by byte, the reference may overlap what is being written
+            for (int i = 0; i < length; i++) {
+                output[out++] = output[ref++];
+            }
+        }
+    }
+
+    private static int hash(byte[] input, int index) {
+        int value = (input[index] & 0xFF) << 16 | (input[index + 1] & 0xFF) << 8 | (input[index + 2] & 0xFF);
+        return (value * 0x9E3779B1) >>> (32 - HASH_BITS);
+    }
+}
@@ -0,0 +1,21 @@
+package com.arbi.redis;
+
+import io.lettuce.core.metrics.MicrometerOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Per-command Lettuce latencies, tagged by command type and remote address only. Percentiles are
+     * computed client-side; histogram buckets are opt-in because they multiply the series per command.
+     */
+    @Bean
+    public MicrometerOptions micrometerOptions(MetricsProperties properties) {
+        return MicrometerOptions.builder()
+                .histogram(properties.isLettuceHistogram())
+                .localDistinction(false)
+                .build();
+    }
+}
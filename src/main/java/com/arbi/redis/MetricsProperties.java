@@ -0,0 +1,26 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.metrics")
+public class MetricsProperties {
+
+    /**
+     * How often the order stream pending and lag gauges are refreshed.
+     */
+    private Duration streamInterval = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound of entries counted with XRANGE when the server does not report group lag.
+     */
+    private long streamLagScanLimit = 10_000L;
+
+    /**
+     * Publish Lettuce command latencies as histogram buckets on top of the client-side percentiles.
+     */
+    private boolean lettuceHistogram = false;
+}
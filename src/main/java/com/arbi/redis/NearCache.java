@@ -0,0 +1,176 @@
+package com.arbi.redis;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache: a bounded in-process L1 in front of the shared {@link RedisCache} L2.
+ * Every write goes to Redis first, then drops the L1 entry on all other nodes.
+ */
+public class NearCache implements Cache {
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+
+    private final RedisCache remote;
+
+    private final CacheInvalidationPublisher publisher;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public NearCache(com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+                     RedisCache remote,
+                     CacheInvalidationPublisher publisher,
+                     HotKeyTracker hotKeyTracker) {
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> getLocalCache() {
+        return local;
+    }
+
+    public RedisCache getRemoteCache() {
+        return remote;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        hotKeyTracker.record(getName(), localKey);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            return wrapper;
+        }
+
+        wrapper = remote.get(key);
+        if (wrapper != null) {
+            local.put(localKey, new SimpleValueWrapper(wrapper.get()));
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        hotKeyTracker.record(getName(), localKey);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        T value = remote.get(key, valueLoader);
+        local.put(localKey, new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        ValueWrapper wrapper = local.getIfPresent(localKey(key));
+        if (wrapper != null) {
+            return CompletableFuture.completedFuture(wrapper);
+        }
+        return remote.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return remote.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        publisher.publish(getName(), localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            local.put(localKey(key), new SimpleValueWrapper(value));
+            publisher.publish(getName(), localKey(key));
+        } else {
+            local.put(localKey(key), new SimpleValueWrapper(existing.get()));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        publisher.publish(getName(), localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        local.invalidate(localKey(key));
+        publisher.publish(getName(), localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        local.invalidateAll();
+        publisher.publish(getName(), null);
+        return present;
+    }
+
+    /**
+     * Fills L1 with a value read from Redis by someone else, without writing back or invalidating.
+     */
+    void putLocal(String key, Object value) {
+        local.put(key, new SimpleValueWrapper(value));
+    }
+
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
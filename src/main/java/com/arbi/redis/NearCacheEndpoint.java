@@ -0,0 +1,41 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "nearcache")
+public class NearCacheEndpoint {
+
+    @Autowired
+    private NearCacheManager nearCacheManager;
+
+    @ReadOperation
+    public Map<String, Object> caches() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        nearCacheManager.getNearCaches().forEach((name, cache) -> {
+            var local = cache.getLocalCache().stats();
+            var remote = cache.getRemoteCache().getStatistics();
+            long remoteHits = remote.getHits();
+            long remoteLookups = remoteHits + remote.getMisses();
+
+            result.put(name, Map.of(
+                    "l1", Map.of(
+                            "size", cache.getLocalCache().estimatedSize(),
+                            "hits", local.hitCount(),
+                            "misses", local.missCount(),
+                            "hitRate", local.hitRate(),
+                            "evictions", local.evictionCount()),
+                    "l2", Map.of(
+                            "hits", remoteHits,
+                            "misses", remote.getMisses(),
+                            "hitRate", remoteLookups == 0 ? 1.0 : (double) remoteHits / remoteLookups)));
+        });
+        return result;
+    }
+}
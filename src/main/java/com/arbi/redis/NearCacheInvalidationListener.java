@@ -0,0 +1,49 @@
+package com.arbi.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Drops local entries when another node writes, or when Redis expires the backing key
+ * (requires {@code notify-keyspace-events} to include {@code Ex}, see {@link KeyspaceNotifications}).
+ */
+@Component
+@Slf4j
+public class NearCacheInvalidationListener implements MessageListener {
+
+    public static final String EXPIRED_PATTERN = "__keyevent@*__:expired";
+
+    @Autowired
+    private NearCacheManager nearCacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        if (channel.endsWith(":expired")) {
+            nearCacheManager.invalidateExpired(new String(message.getBody(), StandardCharsets.UTF_8));
+            return;
+        }
+
+        try {
+            var invalidation = objectMapper.readValue(message.getBody(), CacheInvalidation.class);
+            if (!instanceId.get().equals(invalidation.origin())) {
+                nearCacheManager.invalidateLocal(invalidation.cacheName(), invalidation.key());
+            }
+        } catch (IOException exception) {
+            log.warn("Invalid cache invalidation message on {}", channel, exception);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.arbi.redis;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Puts a {@link NearCache} in front of the configured cache names and passes every other cache
+ * straight through to Redis.
+ */
+public class NearCacheManager implements CacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+
+    private final NearCacheProperties properties;
+
+    private final CacheInvalidationPublisher publisher;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    private final Map<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(RedisCacheManager redisCacheManager,
+                            NearCacheProperties properties,
+                            CacheInvalidationPublisher publisher,
+                            HotKeyTracker hotKeyTracker) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.publisher = publisher;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!isNear(name)) {
+            return redisCacheManager.getCache(name);
+        }
+        return caches.computeIfAbsent(name, this::createNearCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        var names = new LinkedHashSet<>(redisCacheManager.getCacheNames());
+        names.addAll(caches.keySet());
+        return names;
+    }
+
+    public Map<String, NearCache> getNearCaches() {
+        return caches;
+    }
+
+    public void invalidateLocal(String cacheName, String key) {
+        NearCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateLocal(key);
+        }
+    }
+
+    /**
+     * Maps an expired Redis key such as {@code cache:products::P-001} back to its near cache entry.
+     */
+    public void invalidateExpired(String redisKey) {
+        caches.forEach((name, cache) -> {
+            String prefix = cache.getRemoteCache().getCacheConfiguration().getKeyPrefixFor(name);
+            if (redisKey.startsWith(prefix)) {
+                cache.invalidateLocal(redisKey.substring(prefix.length()));
+            }
+        });
+    }
+
+    private boolean isNear(String name) {
+        return properties.isEnabled() && properties.getCacheNames().contains(name);
+    }
+
+    private NearCache createNearCache(String name) {
+        var remote = (RedisCache) redisCacheManager.getCache(name);
+        var ttl = remote.getCacheConfiguration().getTtlFunction().getTimeToLive(Object.class, null);
+        var localTtl = ttl.isZero() || ttl.compareTo(properties.getTimeToLive()) > 0 ? properties.getTimeToLive() : ttl;
+
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> local = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+
+        var nearCache = new NearCache(local, remote, publisher, hotKeyTracker);
+        if (remote instanceof StampedeProtectedCache stampedeProtected) {
+            stampedeProtected.storeThrough(nearCache);
+        }
+        return nearCache;
+    }
+}
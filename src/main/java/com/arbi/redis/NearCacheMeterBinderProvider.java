@@ -0,0 +1,24 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the standard {@code cache.*} meters for both tiers of a {@link NearCache}: the Redis tier
+ * under the cache name and the in-process tier under {@code <name>.l1}.
+ */
+@Component
+public class NearCacheMeterBinderProvider implements CacheMeterBinderProvider<NearCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(NearCache cache, Iterable<Tag> tags) {
+        return registry -> {
+            new RedisCacheMetrics(cache.getRemoteCache(), tags).bindTo(registry);
+            new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName() + ".l1", tags).bindTo(registry);
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.near")
+public class NearCacheProperties {
+
+    private boolean enabled = true;
+
+    private Set<String> cacheNames = new HashSet<>(Set.of("products"));
+
+    private long maximumSize = 10_000L;
+
+    /**
+     * Lifetime of an in-process entry. Kept shorter than the Redis TTL so a
+     * missed invalidation can only serve a stale value for this long.
+     */
+    private Duration timeToLive = Duration.ofSeconds(10);
+
+    private String invalidationChannel = "cache:invalidations";
+}
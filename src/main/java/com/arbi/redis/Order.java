@@ -12,4 +12,13 @@ public class Order {
     private String id;
 
     private Long amount;
+
+    /**
+     * When the order was published, in microseconds since the epoch.
+     */
+    private Long createdAt;
+
+    public Order(String id, Long amount) {
+        this(id, amount, null);
+    }
 }
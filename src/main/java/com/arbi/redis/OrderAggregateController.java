@@ -0,0 +1,32 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders/aggregates")
+@ConditionalOnProperty(prefix = "app.orders.aggregation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderAggregateController {
+
+    @Autowired
+    private OrderAggregator orderAggregator;
+
+    /**
+     * The latest {@code count} windows of {@code window}, newest first, optionally ending at {@code at}.
+     */
+    @GetMapping("/{window}")
+    public ResponseEntity<List<OrderAggregator.WindowAggregate>> get(@PathVariable String window,
+                                                                     @RequestParam(defaultValue = "1") int count,
+                                                                     @RequestParam(required = false) Instant at) {
+        return ResponseEntity.ofNullable(orderAggregator.query(window, at != null ? at : Instant.now(), Math.max(1, count)));
+    }
+}
@@ -0,0 +1,436 @@
+package com.arbi.redis;
+
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maintains count, sum, min and max of {@link Order#getAmount()} per window of
+ * {@code app.orders.aggregation.windows}. Records are read in a consumer group of their own, bucketed
+ * by the time of their stream id into panes (the window step), folded in memory and flushed every
+ * {@code flush-interval} as one script: the script checks that every folded record is still pending,
+ * acknowledges them and applies HINCRBY (count, sum) and ZADD LT/GT (min, max) per pane. Counting and
+ * acknowledging in one atomic step is what keeps restarts, redeliveries and takeovers of idle entries
+ * from counting an order twice: if another aggregator got there first, its records are dropped and
+ * the rest is refolded. With partitioned streams the group reads every partition, and each stream is
+ * flushed by its own script call into panes of its own, {@code <prefix>:{<tag>}:<pane seconds>:<start>}
+ * with the hash tag of the stream, so every key of the call is in the stream's slot in Redis Cluster.
+ * Queries add up the panes of all streams.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders.aggregation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderAggregator implements SmartLifecycle {
+
+    private static final RedisScript<List> FLUSH = new DefaultRedisScript<>("""
+            local group = ARGV[1]
+            local ids = tonumber(ARGV[2])
+            local acked = {}
+            for i = 3, ids + 2 do
+                if #redis.call('xpending', KEYS[1], group, ARGV[i], ARGV[i], 1) == 0 then
+                    acked[#acked + 1] = ARGV[i]
+                end
+            end
+            if #acked > 0 then
+                return acked
+            end
+            for i = 3, ids + 2 do
+                redis.call('xack', KEYS[1], group, ARGV[i])
+            end
+            local arg = ids + 3
+            for key = 2, #KEYS, 2 do
+                redis.call('hincrby', KEYS[key], 'count', ARGV[arg])
+                redis.call('hincrby', KEYS[key], 'sum', ARGV[arg + 1])
+                redis.call('zadd', KEYS[key + 1], 'LT', ARGV[arg + 2], 'min')
+                redis.call('zadd', KEYS[key + 1], 'GT', ARGV[arg + 3], 'max')
+                redis.call('expire', KEYS[key], ARGV[arg + 4])
+                redis.call('expire', KEYS[key + 1], ARGV[arg + 4])
+                arg = arg + 5
+            end
+            return acked
+            """, List.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderConsumerRegistry consumerRegistry;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    /**
+     * Records read but not yet flushed, by stream and stream id, so a record claimed twice is folded once.
+     */
+    private final Map<String, Map<String, Folded>> buffered = new LinkedHashMap<>();
+
+    private int bufferedCount;
+
+    private final AtomicLong flushed = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread poller;
+
+    private long nextFlush;
+
+    private long nextClaim;
+
+    @Override
+    public void start() {
+        properties.getAggregation().getWindows().forEach((name, window) -> {
+            Assert.notNull(window.getSize(), () -> "Window " + name + " needs a size");
+            Assert.isTrue(window.getSize().toMillis() % window.getPane().toMillis() == 0,
+                    () -> "Window " + name + " slide must divide its size");
+        });
+        partitions.streams().forEach(stream -> partitions.createGroup(stream, group(), ReadOffset.latest()));
+
+        running = true;
+        poller = Thread.ofPlatform().name("order-aggregator").daemon().start(this::poll);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        poller.interrupt();
+        try {
+            poller.join(properties.getPollTimeout().toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // anything not flushed stays pending and is taken over after claim-min-idle
+        if (!poller.isAlive()) {
+            flush();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Records counted in Redis by this instance.
+     */
+    public long getFlushed() {
+        return flushed.get();
+    }
+
+    private String group() {
+        return properties.getAggregation().getGroup();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poll() {
+        var aggregation = properties.getAggregation();
+        var consumer = Consumer.from(group(), consumerRegistry.getConsumerName());
+        Duration block = aggregation.getFlushInterval().compareTo(properties.getPollTimeout()) < 0
+                ? aggregation.getFlushInterval() : properties.getPollTimeout();
+        var options = StreamReadOptions.empty().count(properties.getBatchSize()).block(block);
+        StreamOffset<String>[] offsets = partitions.streams().stream()
+                .map(stream -> StreamOffset.create(stream, ReadOffset.lastConsumed()))
+                .toArray(StreamOffset[]::new);
+        nextFlush = System.currentTimeMillis() + aggregation.getFlushInterval().toMillis();
+
+        while (running) {
+            try {
+                if (System.currentTimeMillis() >= nextClaim) {
+                    claim();
+                    nextClaim = System.currentTimeMillis() + aggregation.getClaimMinIdle().toMillis();
+                }
+                List<ObjectRecord<String, Order>> records = orderStreamOperations
+                        .read(Order.class, consumer, options, offsets);
+                if (records != null) {
+                    records.forEach(this::fold);
+                }
+                if (bufferedCount >= aggregation.getMaxBuffered() || System.currentTimeMillis() >= nextFlush) {
+                    flush();
+                    nextFlush = System.currentTimeMillis() + aggregation.getFlushInterval().toMillis();
+                }
+            } catch (RuntimeException exception) {
+                if (running) {
+                    log.warn("Aggregating {} failed", properties.getStream(), exception);
+                }
+            }
+        }
+    }
+
+    private void fold(ObjectRecord<String, Order> record) {
+        Long amount = record.getValue() != null ? record.getValue().getAmount() : null;
+        var folded = buffered.computeIfAbsent(record.getStream(), stream -> new LinkedHashMap<>());
+        if (folded.putIfAbsent(record.getId().getValue(), new Folded(record.getId().getTimestamp(), amount)) == null) {
+            bufferedCount++;
+        }
+    }
+
+    /**
+     * Takes over entries another aggregator read but did not flush within {@code claim-min-idle}.
+     */
+    private void claim() {
+        partitions.streams().forEach(this::claim);
+    }
+
+    private void claim(String stream) {
+        String cursor = "0-0";
+        do {
+            ClaimedMessages<byte[], byte[]> claimed = autoClaim(stream, cursor);
+            if (claimed == null) {
+                return;
+            }
+            for (StreamMessage<byte[], byte[]> message : claimed.getMessages()) {
+                ByteRecord raw = StreamRecords.rawBytes(message.getBody())
+                        .withStreamKey(message.getStream())
+                        .withId(RecordId.of(message.getId()));
+                fold(orderStreamOperations.map(orderStreamOperations.deserializeRecord(raw), Order.class));
+            }
+            cursor = claimed.getId();
+        } while (!"0-0".equals(cursor));
+    }
+
+    /**
+     * Writes everything folded so far. Runs on the poller thread only, or after it has stopped.
+     */
+    private void flush() {
+        buffered.forEach(this::flush);
+        buffered.clear();
+        bufferedCount = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void flush(String stream, Map<String, Folded> folded) {
+        while (!folded.isEmpty()) {
+            Map<String, Pane> panes = panes(stream, folded);
+            List<String> keys = new ArrayList<>(1 + panes.size() * 2);
+            List<String> args = new ArrayList<>(2 + folded.size() + panes.size() * 5);
+            keys.add(stream);
+            args.add(group());
+            args.add(String.valueOf(folded.size()));
+            args.addAll(folded.keySet());
+            String ttl = String.valueOf(properties.getAggregation().getRetention().toSeconds());
+            panes.forEach((key, pane) -> {
+                keys.add(key);
+                keys.add(key + ":range");
+                args.add(String.valueOf(pane.count));
+                args.add(String.valueOf(pane.sum));
+                args.add(String.valueOf(pane.min));
+                args.add(String.valueOf(pane.max));
+                args.add(ttl);
+            });
+
+            List<String> alreadyAcked = redisTemplate.execute(FLUSH, keys, args.toArray());
+            if (alreadyAcked == null || alreadyAcked.isEmpty()) {
+                flushed.addAndGet(folded.size());
+                folded.clear();
+                return;
+            }
+            log.info("{} records were already counted elsewhere, refolding", alreadyAcked.size());
+            alreadyAcked.forEach(folded::remove);
+        }
+    }
+
+    private Map<String, Pane> panes(String stream, Map<String, Folded> folded) {
+        Set<Long> paneMillis = new TreeSet<>();
+        properties.getAggregation().getWindows().values().forEach(window -> paneMillis.add(window.getPane().toMillis()));
+
+        Map<String, Pane> panes = new LinkedHashMap<>();
+        for (Folded record : folded.values()) {
+            if (record.amount() == null) {
+                continue;
+            }
+            for (long millis : paneMillis) {
+                panes.computeIfAbsent(paneKey(stream, millis, record.timestamp() - record.timestamp() % millis), key -> new Pane())
+                        .add(record.amount());
+            }
+        }
+        return panes;
+    }
+
+    /**
+     * The latest {@code count} windows ending at or before {@code at}, newest first, read from the
+     * panes of every stream in one pipeline. Records not yet flushed are not included.
+     */
+    @SuppressWarnings("unchecked")
+    public List<WindowAggregate> query(String name, Instant at, int count) {
+        var window = properties.getAggregation().getWindows().get(name);
+        if (window == null) {
+            return null;
+        }
+
+        long pane = window.getPane().toMillis();
+        int panesPerWindow = (int) (window.getSize().toMillis() / pane);
+        long lastPane = at.toEpochMilli() - at.toEpochMilli() % pane;
+        int total = count + panesPerWindow - 1;
+        List<String> streams = partitions.streams();
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String stream : streams) {
+                for (int i = 0; i < total; i++) {
+                    String key = paneKey(stream, pane, lastPane - i * pane);
+                    connection.hashCommands().hGetAll(key.getBytes(StandardCharsets.UTF_8));
+                    connection.zSetCommands().zRangeWithScores((key + ":range").getBytes(StandardCharsets.UTF_8), 0, -1);
+                }
+            }
+            return null;
+        });
+
+        List<Pane> panes = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            panes.add(new Pane());
+        }
+        for (int s = 0; s < streams.size(); s++) {
+            for (int i = 0; i < total; i++) {
+                int reply = (s * total + i) * 2;
+                panes.get(i).merge(Pane.of((Map<String, String>) replies.get(reply),
+                        (Set<ZSetOperations.TypedTuple<String>>) replies.get(reply + 1)));
+            }
+        }
+
+        List<WindowAggregate> result = new ArrayList<>(count);
+        for (int w = 0; w < count; w++) {
+            Pane merged = new Pane();
+            for (int i = w; i < w + panesPerWindow; i++) {
+                merged.merge(panes.get(i));
+            }
+            long end = lastPane - w * pane + pane;
+            result.add(new WindowAggregate(Instant.ofEpochMilli(end - window.getSize().toMillis()),
+                    Instant.ofEpochMilli(end), merged.count, merged.sum,
+                    merged.count > 0 ? merged.min : null, merged.count > 0 ? merged.max : null));
+        }
+        return result;
+    }
+
+    private String paneKey(String stream, long paneMillis, long start) {
+        return properties.getAggregation().getKeyPrefix() + ":{" + hashTag(stream) + "}:" + paneMillis / 1000 + ":" + start;
+    }
+
+    /**
+     * What Redis Cluster hashes of {@code key}: the content of its first non-empty {@code {...}}, or
+     * the whole key.
+     */
+    static String hashTag(String key) {
+        int open = key.indexOf('{');
+        int close = open >= 0 ? key.indexOf('}', open + 1) : -1;
+        return close > open + 1 ? key.substring(open + 1, close) : key;
+    }
+
+    private ClaimedMessages<byte[], byte[]> autoClaim(String stream, String cursor) {
+        return redisTemplate.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection -> {
+            var args = XAutoClaimArgs.Builder
+                    .xautoclaim(io.lettuce.core.Consumer.from(bytes(group()), bytes(consumerRegistry.getConsumerName())),
+                            properties.getAggregation().getClaimMinIdle(), cursor)
+                    .count(properties.getBatchSize());
+            try {
+                return streamCommands(connection).xautoclaim(bytes(stream), args)
+                        .get(properties.getPollTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException exception) {
+                log.warn("XAUTOCLAIM failed on {}", stream, exception);
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisStreamAsyncCommands<byte[], byte[]> streamCommands(RedisConnection connection) {
+        return (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public record WindowAggregate(Instant start, Instant end, long count, long sum, Long min, Long max) {
+    }
+
+    private record Folded(long timestamp, Long amount) {
+    }
+
+    private static class Pane {
+
+        private long count;
+
+        private long sum;
+
+        private long min = Long.MAX_VALUE;
+
+        private long max = Long.MIN_VALUE;
+
+        void add(long amount) {
+            count++;
+            sum += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+
+        void merge(Pane other) {
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        static Pane of(Map<String, String> hash, Set<ZSetOperations.TypedTuple<String>> range) {
+            Pane pane = new Pane();
+            if (hash == null || hash.isEmpty()) {
+                return pane;
+            }
+            pane.count = Long.parseLong(hash.getOrDefault("count", "0"));
+            pane.sum = Long.parseLong(hash.getOrDefault("sum", "0"));
+            if (range != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : range) {
+                    if ("min".equals(tuple.getValue())) {
+                        pane.min = tuple.getScore().longValue();
+                    } else if ("max".equals(tuple.getValue())) {
+                        pane.max = tuple.getScore().longValue();
+                    }
+                }
+            }
+            return pane;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/orders/archive")
+@ConditionalOnProperty(prefix = "app.orders.archive", name = "enabled", havingValue = "true")
+public class OrderArchiveController {
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    /**
+     * Replays archived orders with stream ids between {@code from} and {@code to}, both inclusive.
+     */
+    @PostMapping("/replay")
+    public Map<String, Long> replay(@RequestParam(defaultValue = "0-0") String from,
+                                    @RequestParam(required = false) String to) {
+        RecordId end = to != null ? RecordId.of(to) : RecordId.of(Long.MAX_VALUE, Long.MAX_VALUE);
+        long start = System.nanoTime();
+        long replayed = orderArchiver.replay(RecordId.of(from), end);
+        return Map.of("replayed", replayed, "tookMs", (System.nanoTime() - start) / 1_000_000);
+    }
+}
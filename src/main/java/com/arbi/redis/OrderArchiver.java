@@ -0,0 +1,313 @@
+package com.arbi.redis;
+
+import io.lettuce.core.XTrimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Moves order stream entries older than {@code app.orders.archive.retain} to {@link ArchiveSegment}
+ * files under {@code app.orders.archive.directory}, one directory per stream. Every run tails the
+ * stream with XRANGE after the last archived id, forces the segment to disk and only then trims the
+ * archived entries with XTRIM MINID, so an entry is never gone from both places. One instance
+ * archives a stream at a time: it holds the lease {@code <stream>:archiver} for
+ * {@code app.orders.archive.lease}, renewed on every batch, so the segments of a stream accumulate on
+ * that instance. Replay reads the segments from local memory-mapped files and feeds every order in
+ * range back through {@link OrderListener#onReplay}, duplicates included.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders.archive", name = "enabled", havingValue = "true")
+public class OrderArchiver implements SchedulingConfigurer {
+
+    private static final RedisScript<Boolean> ACQUIRE = new DefaultRedisScript<>("""
+            if redis.call('set', KEYS[1], ARGV[1], 'nx', 'px', ARGV[2]) then
+                return 1
+            end
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Boolean.class);
+
+    private static final RedisScript<Boolean> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Boolean.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @Autowired
+    private CodecHashMapper codecHashMapper;
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    private final Map<String, ArchiveSegment> active = new ConcurrentHashMap<>();
+
+    /**
+     * The last entry of every stream that is durably archived; replay does not read past it.
+     */
+    private final Map<String, RecordId> durable = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        var archive = properties.getArchive();
+        // the publisher's trim would drop entries before they are archived
+        Assert.state(properties.getPublisher().getTrimStrategy() == OrderStreamProperties.TrimStrategy.NONE,
+                "app.orders.archive.enabled=true needs app.orders.publisher.trim-strategy=none");
+        if (archive.getLease().compareTo(archive.getInterval()) <= 0) {
+            log.warn("The archiver lease of {} lapses between runs every {}, streams may change archivers",
+                    archive.getLease(), archive.getInterval());
+        }
+        for (String stream : partitions.streams()) {
+            Path directory = directory(stream);
+            Files.createDirectories(directory);
+            List<Path> segments = segments(directory);
+            if (!segments.isEmpty()) {
+                var segment = ArchiveSegment.open(segments.get(segments.size() - 1), archive.getIndexInterval(), false);
+                active.put(stream, segment);
+                if (segment.getLastId() != null) {
+                    durable.put(stream, segment.getLastId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::archive, properties.getArchive().getInterval());
+    }
+
+    /**
+     * Archives and trims once every stream whose lease this instance holds or can take.
+     *
+     * @return entries archived
+     */
+    public synchronized long archive() {
+        long archived = 0;
+        for (String stream : partitions.streams()) {
+            if (!lease(stream)) {
+                continue;
+            }
+            try {
+                archived += archive(stream);
+            } catch (RuntimeException exception) {
+                log.warn("Archiving {} failed", stream, exception);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Feeds archived orders with ids from {@code from} to {@code to}, both inclusive, through
+     * {@link OrderListener#onReplay}, stream by stream and in id order within each stream.
+     *
+     * @return orders replayed
+     */
+    public long replay(RecordId from, RecordId to) {
+        var archive = properties.getArchive();
+        AtomicLong replayed = new AtomicLong();
+        for (String stream : partitions.streams()) {
+            RecordId end = durable.get(stream);
+            if (end == null) {
+                continue;
+            }
+            RecordId last = compare(end, to) < 0 ? end : to;
+            List<Path> segments = segments(directory(stream));
+            for (int i = 0; i < segments.size(); i++) {
+                // skip segments that end before from, judged by the first id of the next one
+                if (i + 1 < segments.size() && compare(ArchiveSegment.firstId(segments.get(i + 1)), from) <= 0) {
+                    continue;
+                }
+                if (compare(ArchiveSegment.firstId(segments.get(i)), last) > 0) {
+                    break;
+                }
+                try (var segment = ArchiveSegment.open(segments.get(i), archive.getIndexInterval(), true)) {
+                    segment.read(from, (id, fields) -> {
+                        if (compare(id, last) > 0) {
+                            return false;
+                        }
+                        Order order = (Order) codecHashMapper.fromHash(fields);
+                        orderListener.onReplay(StreamRecords.objectBacked(order).withStreamKey(stream).withId(id));
+                        replayed.incrementAndGet();
+                        return true;
+                    });
+                }
+            }
+        }
+        return replayed.get();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        active.values().forEach(ArchiveSegment::close);
+        active.clear();
+        for (String stream : partitions.streams()) {
+            redisTemplate.execute(RELEASE, List.of(leaseKey(stream)), instanceId.get());
+        }
+    }
+
+    private long archive(String stream) {
+        var archive = properties.getArchive();
+        byte[] key = stream.getBytes(StandardCharsets.UTF_8);
+        String cutoff = (System.currentTimeMillis() - archive.getRetain().toMillis()) + "-0";
+        Limit limit = Limit.limit().count(archive.getBatchSize());
+
+        long archived = 0;
+        while (true) {
+            RecordId last = lastId(stream);
+            Range<String> range = last == null
+                    ? Range.leftUnbounded(Range.Bound.exclusive(cutoff))
+                    : Range.of(Range.Bound.exclusive(last.getValue()), Range.Bound.exclusive(cutoff));
+            List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                    connection.streamCommands().xRange(key, range, limit));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            for (ByteRecord record : records) {
+                append(stream, record);
+            }
+            archived += records.size();
+            if (records.size() < archive.getBatchSize() || !lease(stream)) {
+                break;
+            }
+        }
+
+        ArchiveSegment segment = active.get(stream);
+        if (segment == null || segment.getLastId() == null) {
+            return 0;
+        }
+        if (archived > 0) {
+            segment.force();
+            durable.put(stream, segment.getLastId());
+            log.debug("Archived {} entries of {} up to {}", archived, stream, segment.getLastId());
+        }
+        // also catches up on a trim that failed or was cut short by a restart
+        trim(key, segment.getLastId());
+        return archived;
+    }
+
+    private void append(String stream, ByteRecord record) {
+        var archive = properties.getArchive();
+        ArchiveSegment segment = active.get(stream);
+        if (segment != null && segment.append(record.getId(), record.getValue())) {
+            return;
+        }
+        if (segment != null) {
+            // a full segment is sealed durably before its successor takes writes
+            segment.force();
+            durable.put(stream, segment.getLastId());
+            segment.close();
+        }
+        segment = ArchiveSegment.create(directory(stream), record.getId(), (int) archive.getSegmentSize().toBytes(),
+                archive.getIndexInterval());
+        active.put(stream, segment);
+        if (!segment.append(record.getId(), record.getValue())) {
+            throw new IllegalStateException("Entry " + record.getId() + " is larger than a segment");
+        }
+    }
+
+    /**
+     * Removes every entry up to and including {@code last}. Exact trimming, so nothing archived stays
+     * behind in Redis.
+     */
+    private void trim(byte[] key, RecordId last) {
+        String minId = last.getTimestamp() + "-" + (last.getSequence() + 1);
+        redisTemplate.execute((RedisCallback<Long>) connection -> {
+            try {
+                return streamCommands(connection).xtrim(key, XTrimArgs.Builder.minId(minId).exactTrimming())
+                        .get(properties.getPollTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException exception) {
+                log.warn("XTRIM failed on {}", new String(key, StandardCharsets.UTF_8), exception);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Takes or renews the archiver lease of {@code stream}.
+     */
+    private boolean lease(String stream) {
+        return Boolean.TRUE.equals(redisTemplate.execute(ACQUIRE, List.of(leaseKey(stream)), instanceId.get(),
+                String.valueOf(properties.getArchive().getLease().toMillis())));
+    }
+
+    private static String leaseKey(String stream) {
+        return stream + ":archiver";
+    }
+
+    private RecordId lastId(String stream) {
+        ArchiveSegment segment = active.get(stream);
+        return segment != null ? segment.getLastId() : null;
+    }
+
+    private Path directory(String stream) {
+        // braces of partition hash tags are not welcome in every file system
+        return properties.getArchive().getDirectory().resolve(stream.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    private static List<Path> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(ArchiveSegment.SUFFIX)).sorted().toList();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static int compare(RecordId left, RecordId right) {
+        int result = Long.compare(left.getTimestamp(), right.getTimestamp());
+        return result != 0 ? result : Long.compare(left.getSequence(), right.getSequence());
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisStreamAsyncCommands<byte[], byte[]> streamCommands(RedisConnection connection) {
+        return (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+}
@@ -0,0 +1,146 @@
+package com.arbi.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads up to {@code app.orders.batch-size} records per XREADGROUP, processes them in parallel and
+ * acknowledges every successful record with a single XACK.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders", name = "listener-mode", havingValue = "batch")
+public class OrderBatchConsumer implements SmartLifecycle {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderConsumerRegistry consumerRegistry;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running;
+
+    private ExecutorService workers;
+
+    private Thread poller;
+
+    @Override
+    public void start() {
+        // records of a batch are processed in parallel, which would break per-partition ordering
+        Assert.state(!partitions.isPartitioned(), "Partitioned order streams need app.orders.listener-mode=single");
+        try {
+            redisTemplate.opsForStream().createGroup(properties.getStream(), properties.getGroup());
+        } catch (RedisSystemException exception) {
+            // group already exists
+        }
+
+        workers = Executors.newFixedThreadPool(properties.getConcurrency(), Thread.ofVirtual().name("order-worker-", 0).factory());
+        running = true;
+        poller = Thread.ofPlatform().name("order-poller").daemon().start(this::poll);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        poller.interrupt();
+        workers.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    private void poll() {
+        var consumer = consumerRegistry.getConsumer();
+        var options = StreamReadOptions.empty()
+                .count(properties.getBatchSize())
+                .block(properties.getPollTimeout());
+        var offset = StreamOffset.create(properties.getStream(), ReadOffset.lastConsumed());
+
+        while (running) {
+            try {
+                List<ObjectRecord<String, Order>> records = orderStreamOperations
+                        .read(Order.class, consumer, options, offset);
+                if (records != null && !records.isEmpty()) {
+                    process(records);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException exception) {
+                if (running) {
+                    log.warn(exception.getMessage());
+                }
+            }
+        }
+    }
+
+    private void process(List<ObjectRecord<String, Order>> records) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(records.size());
+        for (ObjectRecord<String, Order> record : records) {
+            futures.add(workers.submit(() -> orderListener.onMessage(record)));
+        }
+
+        List<RecordId> succeeded = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                futures.get(i).get();
+                succeeded.add(records.get(i).getId());
+            } catch (ExecutionException exception) {
+                log.warn("Order {} failed, left pending", records.get(i).getId(), exception.getCause());
+            }
+        }
+
+        deduplicator.acknowledge(properties.getStream(), properties.getGroup(), succeeded);
+        processed.addAndGet(succeeded.size());
+        batches.incrementAndGet();
+    }
+}
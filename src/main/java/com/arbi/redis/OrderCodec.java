@@ -0,0 +1,38 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OrderCodec implements BinaryCodec<Order> {
+
+    @Override
+    public Class<Order> type() {
+        return Order.class;
+    }
+
+    @Override
+    public byte typeId() {
+        return 1;
+    }
+
+    @Override
+    public byte version() {
+        return 2;
+    }
+
+    @Override
+    public void write(Order value, BinaryOutput output) {
+        output.writeString(value.getId());
+        output.writeNullableLong(value.getAmount());
+        output.writeNullableLong(value.getCreatedAt());
+    }
+
+    @Override
+    public Order read(BinaryInput input, byte version) {
+        if (version < 1 || version > 2) {
+            throw new SerializationException("Unsupported Order version " + version);
+        }
+        return new Order(input.readString(), input.readNullableLong(), version >= 2 ? input.readNullableLong() : null);
+    }
+}
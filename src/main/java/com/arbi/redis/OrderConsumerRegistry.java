@@ -0,0 +1,114 @@
+package com.arbi.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Gives this instance a unique consumer name in the order group and keeps a heartbeat for it in
+ * the {@code <stream>:consumers} sorted set, scored by the time of the last beat.
+ */
+@Component
+@Slf4j
+public class OrderConsumerRegistry implements SchedulingConfigurer {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    public String getConsumerName() {
+        if (StringUtils.hasText(properties.getConsumerName())) {
+            return properties.getConsumerName();
+        }
+        return "consumer-" + instanceId.get();
+    }
+
+    public Consumer getConsumer() {
+        return Consumer.from(properties.getGroup(), getConsumerName());
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedRateTask(this::heartbeat, properties.getHeartbeatInterval());
+        taskRegistrar.addFixedDelayTask(this::removeDeadConsumers, properties.getHeartbeatTimeout());
+    }
+
+    public void heartbeat() {
+        redisTemplate.opsForZSet().add(heartbeatKey(), getConsumerName(), System.currentTimeMillis());
+    }
+
+    /**
+     * Consumers that beat within the heartbeat timeout.
+     */
+    public Set<String> getLiveConsumers() {
+        long deadline = System.currentTimeMillis() - properties.getHeartbeatTimeout().toMillis();
+        Set<String> live = redisTemplate.opsForZSet().rangeByScore(heartbeatKey(), deadline, Double.POSITIVE_INFINITY);
+        return live != null ? live : Set.of();
+    }
+
+    /**
+     * Removes consumers that stopped beating, or never beat and stayed idle past the heartbeat timeout,
+     * such as consumers of an older version, once they no longer own pending entries in any order
+     * stream. Their pending entries are left to {@link OrderReclaimer} until then.
+     */
+    public void removeDeadConsumers() {
+        long timeout = properties.getHeartbeatTimeout().toMillis();
+        long deadline = System.currentTimeMillis() - timeout;
+        Set<String> dead = redisTemplate.opsForZSet().rangeByScore(heartbeatKey(), 0, deadline);
+        Set<String> stopped = dead != null ? dead : Set.of();
+        Set<String> live = getLiveConsumers();
+
+        Set<String> removed = new HashSet<>();
+        Set<String> busy = new HashSet<>();
+        for (String stream : partitions.streams()) {
+            var consumers = redisTemplate.opsForStream().consumers(stream, properties.getGroup());
+            consumers.forEach(consumer -> {
+                String name = consumer.consumerName();
+                boolean silent = !live.contains(name) && !name.equals(getConsumerName())
+                        && consumer.idleTimeMs() > timeout;
+                if (!stopped.contains(name) && !silent) {
+                    return;
+                }
+                if (consumer.pendingCount() == 0) {
+                    redisTemplate.opsForStream().deleteConsumer(stream, Consumer.from(properties.getGroup(), name));
+                    removed.add(name);
+                } else {
+                    busy.add(name);
+                }
+            });
+        }
+        stopped.stream().filter(name -> !busy.contains(name)).forEach(name -> {
+            redisTemplate.opsForZSet().remove(heartbeatKey(), name);
+            removed.add(name);
+        });
+        removed.removeAll(busy);
+        removed.forEach(name -> log.info("Removed dead consumer {}", name));
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void leave() {
+        redisTemplate.opsForZSet().remove(heartbeatKey(), getConsumerName());
+    }
+
+    private String heartbeatKey() {
+        return properties.getStream() + ":consumers";
+    }
+}
@@ -0,0 +1,166 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers processed order ids so redelivered records are skipped. A local Bloom filter answers
+ * "definitely new" without a round trip; only ids it may have seen are checked against a marker key in
+ * Redis. The filter has two generations, rotated every {@code app.orders.dedup.window}, so memory stays
+ * bounded and ids are remembered locally for one to two windows. Markers live for two windows and are
+ * written by {@link #markProcessed} as soon as a record was processed, before it is acknowledged, so a
+ * consumer that dies between processing and XACK leaves a marker behind and the reclaimed record is
+ * skipped. Only a crash inside processing itself, before the marker is written, still reprocesses.
+ */
+@Component
+public class OrderDeduplicator implements SchedulingConfigurer {
+
+    private static final String MARKER = "1";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    private final AtomicLong windowNew = new AtomicLong();
+
+    private final AtomicLong windowFalsePositives = new AtomicLong();
+
+    private volatile double falsePositiveRate;
+
+    private BloomFilter current;
+
+    private BloomFilter previous;
+
+    private Counter definitelyNew;
+
+    private Counter falsePositives;
+
+    private Counter duplicates;
+
+    @PostConstruct
+    public void init() {
+        current = newFilter();
+        previous = newFilter();
+
+        definitelyNew = checks("new");
+        falsePositives = checks("false-positive");
+        duplicates = checks("duplicate");
+        Gauge.builder("orders.dedup.false-positive.rate", this, OrderDeduplicator::getFalsePositiveRate)
+                .description("Share of new ids the local filter reported as possible duplicates, over the last window")
+                .register(meterRegistry);
+        Gauge.builder("orders.dedup.expected-false-positive.rate", this, OrderDeduplicator::expectedFalsePositiveRate)
+                .description("False-positive probability of the current filter generation at its fill")
+                .register(meterRegistry);
+        Gauge.builder("orders.dedup.filter.size", this, deduplicator -> deduplicator.current.sizeInBytes() * 2)
+                .description("Memory held by both filter generations")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedRateTask(this::rotate, properties.getDedup().getWindow());
+    }
+
+    /**
+     * Whether {@code id} was already processed. {@code authoritative} skips the local filter, for
+     * records reclaimed from another consumer whose filter this instance never saw.
+     */
+    public boolean isDuplicate(String id, boolean authoritative) {
+        if (!properties.getDedup().isEnabled() || id == null) {
+            return false;
+        }
+        if (!authoritative && !mightContain(id)) {
+            definitelyNew.increment();
+            windowNew.incrementAndGet();
+            return false;
+        }
+
+        Boolean seen = redisTemplate.hasKey(properties.getDedup().getKeyPrefix() + id);
+        if (Boolean.TRUE.equals(seen)) {
+            duplicates.increment();
+            return true;
+        }
+        if (!authoritative) {
+            falsePositives.increment();
+            windowFalsePositives.incrementAndGet();
+        }
+        return false;
+    }
+
+    /**
+     * Records {@code id} as processed, in the local filter and with its Redis marker. Call only once
+     * processing succeeded, so a failed record is not skipped when it is redelivered, and before the
+     * record is acknowledged.
+     */
+    public void markProcessed(String id) {
+        var dedup = properties.getDedup();
+        if (!dedup.isEnabled() || id == null) {
+            return;
+        }
+        redisTemplate.opsForValue().set(dedup.getKeyPrefix() + id, MARKER, dedup.getWindow().multipliedBy(2));
+        synchronized (this) {
+            current.put(id);
+        }
+    }
+
+    /**
+     * Acknowledges {@code recordIds} in {@code stream}. Their markers are already in Redis, written by
+     * {@link #markProcessed}.
+     */
+    public void acknowledge(String stream, String group, Collection<RecordId> recordIds) {
+        if (!recordIds.isEmpty()) {
+            redisTemplate.opsForStream().acknowledge(stream, group, recordIds.toArray(RecordId[]::new));
+        }
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    private synchronized boolean mightContain(String id) {
+        return current.mightContain(id) || previous.mightContain(id);
+    }
+
+    private synchronized double expectedFalsePositiveRate() {
+        return current.expectedFalsePositiveRate();
+    }
+
+    public void rotate() {
+        synchronized (this) {
+            previous = current;
+            current = newFilter();
+        }
+        long falsePositive = windowFalsePositives.getAndSet(0);
+        long total = windowNew.getAndSet(0) + falsePositive;
+        falsePositiveRate = total > 0 ? (double) falsePositive / total : 0;
+    }
+
+    private BloomFilter newFilter() {
+        var dedup = properties.getDedup();
+        return new BloomFilter(dedup.getExpectedInsertions(), dedup.getFalsePositiveRate());
+    }
+
+    private Counter checks(String result) {
+        return Counter.builder("orders.dedup.checks")
+                .description("Order ids checked for duplicates, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,16 +1,98 @@
 package com.arbi.redis;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.stream.StreamListener;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
 @Slf4j
 public class OrderListener implements StreamListener<String, ObjectRecord<String, Order>> {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    private Timer processing;
+
+    private Counter handled;
+
+    private Counter replayed;
+
+    @PostConstruct
+    public void registerMeters() {
+        processing = Timer.builder("orders.processing")
+                .description("Time spent handling one order record")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        handled = handledCounter("delivered");
+        replayed = handledCounter("replayed");
+    }
+
     @Override
     public void onMessage(ObjectRecord<String, Order> message) {
-        Order order = message.getValue();
-        log.info("Receive Order : {}", order);
+        handle(message, false);
+    }
+
+    /**
+     * Handles a record claimed from another consumer, checking for duplicates against Redis only.
+     */
+    public void onRedelivery(ObjectRecord<String, Order> message) {
+        handle(message, true);
+    }
+
+    /**
+     * Handles an order replayed from the archive. Replay is asked for explicitly, so the order is
+     * processed again even if the deduplicator still remembers its id.
+     */
+    public void onReplay(ObjectRecord<String, Order> message) {
+        long start = System.nanoTime();
+        try {
+            Order order = message.getValue();
+            log.info("Replay Order : {}", order);
+            deduplicator.markProcessed(order != null ? order.getId() : null);
+            replayed.increment();
+        } finally {
+            processing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void handle(ObjectRecord<String, Order> message, boolean redelivered) {
+        long start = System.nanoTime();
+        try {
+            Order order = message.getValue();
+            String id = order != null ? order.getId() : null;
+            if (deduplicator.isDuplicate(id, redelivered)) {
+                log.info("Skip duplicate Order : {}", order);
+                return;
+            }
+            log.info("Receive Order : {}", order);
+            if (order != null && !redelivered) {
+                latencyRecorder.record(LatencyRecorder.Flow.ORDERS, order.getCreatedAt());
+            }
+            deduplicator.markProcessed(id);
+            handled.increment();
+        } finally {
+            processing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Counter handledCounter(String source) {
+        return Counter.builder("orders.handled")
+                .description("Order records processed, duplicates excluded")
+                .tag("source", source)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,187 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Decides which order streams this instance consumes. Unpartitioned, every instance reads the single
+ * stream as a competing consumer. Partitioned, each partition has exactly one reader, so its records
+ * are processed in order: the live members of {@link OrderConsumerRegistry} agree on an owner per
+ * partition by rendezvous hashing, which moves only the partitions of a joining or leaving instance,
+ * and the owner holds a lease key {@code <partition>:owner} that it renews every heartbeat. A
+ * partition is only taken once the previous owner released its lease or let it expire.
+ */
+@Component
+@Slf4j
+public class OrderPartitionAssigner implements SchedulingConfigurer {
+
+    public interface Listener {
+
+        void assigned(String stream);
+
+        void revoked(String stream);
+    }
+
+    private static final RedisScript<Boolean> RENEW = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Boolean.class);
+
+    private static final RedisScript<Boolean> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Boolean.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @Autowired
+    private OrderConsumerRegistry consumerRegistry;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Set<String> owned = new CopyOnWriteArraySet<>();
+
+    @PostConstruct
+    public void init() {
+        if (!partitions.isPartitioned()) {
+            owned.add(properties.getStream());
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (partitions.isPartitioned()) {
+            taskRegistrar.addFixedRateTask(this::rebalance, properties.getHeartbeatInterval());
+        }
+    }
+
+    /**
+     * Registers {@code listener} and assigns it the streams owned so far.
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        owned.forEach(listener::assigned);
+    }
+
+    public Set<String> getOwnedStreams() {
+        return owned;
+    }
+
+    /**
+     * Renews the leases of owned partitions, gives up those now assigned elsewhere and takes over
+     * newly assigned ones whose lease is free.
+     */
+    public synchronized void rebalance() {
+        if (!partitions.isPartitioned()) {
+            return;
+        }
+        String me = consumerRegistry.getConsumerName();
+        consumerRegistry.heartbeat();
+        Set<String> members = new TreeSet<>(consumerRegistry.getLiveConsumers());
+        members.add(me);
+        String lease = String.valueOf(properties.getHeartbeatTimeout().toMillis());
+
+        for (String stream : partitions.streams()) {
+            boolean mine = me.equals(owner(stream, members));
+            if (owned.contains(stream)) {
+                if (!mine) {
+                    revoke(stream);
+                    redisTemplate.execute(RELEASE, List.of(leaseKey(stream)), me);
+                } else if (!Boolean.TRUE.equals(redisTemplate.execute(RENEW, List.of(leaseKey(stream)), me, lease))) {
+                    log.warn("Lost the lease of {}", stream);
+                    revoke(stream);
+                }
+            } else if (mine && acquire(stream, me)) {
+                assign(stream);
+            }
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void releaseAll() {
+        if (!partitions.isPartitioned()) {
+            return;
+        }
+        String me = consumerRegistry.getConsumerName();
+        for (String stream : owned) {
+            revoke(stream);
+            redisTemplate.execute(RELEASE, List.of(leaseKey(stream)), me);
+        }
+    }
+
+    private boolean acquire(String stream, String me) {
+        Duration lease = properties.getHeartbeatTimeout();
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey(stream), me, lease))) {
+            return true;
+        }
+        // still ours from before a restart under the same consumer name
+        return Boolean.TRUE.equals(redisTemplate.execute(RENEW, List.of(leaseKey(stream)), me,
+                String.valueOf(lease.toMillis())));
+    }
+
+    private void assign(String stream) {
+        owned.add(stream);
+        log.info("Assigned {}", stream);
+        listeners.forEach(listener -> listener.assigned(stream));
+    }
+
+    private void revoke(String stream) {
+        owned.remove(stream);
+        log.info("Revoked {}", stream);
+        listeners.forEach(listener -> listener.revoked(stream));
+    }
+
+    /**
+     * The member with the highest hash of member and stream; ties go to the first name.
+     */
+    static String owner(String stream, Set<String> members) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String member : members) {
+            long weight = mix((member + '/' + stream).hashCode());
+            if (owner == null || weight > best) {
+                owner = member;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static long mix(long value) {
+        value *= 0x9e3779b97f4a7c15L;
+        value ^= value >>> 32;
+        value *= 0xff51afd7ed558ccdL;
+        return value ^ value >>> 29;
+    }
+
+    private static String leaseKey(String stream) {
+        return stream + ":owner";
+    }
+}
@@ -0,0 +1,71 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Names the order streams. With {@code app.orders.partitioning.partitions} above 1 an order goes to
+ * {@code <stream>:{p}}, {@code p} being a hash of its id, so all records of one order stay in one
+ * stream and keep their order there. The braces make each partition a hash tag of its own, so Redis
+ * Cluster spreads the partitions over its slots instead of putting the whole flow on one node.
+ */
+@Component
+public class OrderPartitions {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    public boolean isPartitioned() {
+        return properties.getPartitioning().getPartitions() > 1;
+    }
+
+    public String streamFor(Order order) {
+        if (!isPartitioned()) {
+            return properties.getStream();
+        }
+        // String.hashCode is fixed by the language spec, so every instance routes an id the same way
+        String id = order.getId();
+        return stream(id != null ? Math.floorMod(id.hashCode(), properties.getPartitioning().getPartitions()) : 0);
+    }
+
+    public String stream(int partition) {
+        return properties.getStream() + ":{" + partition + "}";
+    }
+
+    /**
+     * Every stream consumers read: the partitions, plus the single stream while it is being drained.
+     */
+    public List<String> streams() {
+        if (!isPartitioned()) {
+            return List.of(properties.getStream());
+        }
+        List<String> streams = new ArrayList<>();
+        for (int partition = 0; partition < properties.getPartitioning().getPartitions(); partition++) {
+            streams.add(stream(partition));
+        }
+        if (properties.getPartitioning().getLegacy() == OrderStreamProperties.LegacyStream.DRAIN) {
+            streams.add(properties.getStream());
+        }
+        return streams;
+    }
+
+    /**
+     * Creates {@code group} on {@code stream}, and the stream itself if needed, unless it exists.
+     */
+    public void createGroup(String stream, String group, ReadOffset offset) {
+        try {
+            redisTemplate.opsForStream().createGroup(stream, offset, group);
+        } catch (RedisSystemException exception) {
+            // group already exists
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.arbi.redis;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.connection.stream.ObjectRecord;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -10,15 +9,15 @@ import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Component
+@ConditionalOnProperty(prefix = "app.orders.publisher", name = "sample-orders", havingValue = "true", matchIfMissing = true)
 public class OrderPublisher {
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private BufferedOrderPublisher bufferedOrderPublisher;
 
     @Scheduled(fixedRate = 10, timeUnit = TimeUnit.SECONDS)
     public void run() {
-        Order order = new Order(UUID.randomUUID().toString(), 1000L);
-        ObjectRecord<String, Order> record = ObjectRecord.create("orders", order);
-        redisTemplate.opsForStream().add(record);
+        Order order = new Order(UUID.randomUUID().toString(), 1000L, LatencyRecorder.nowMicros());
+        bufferedOrderPublisher.publish(order);
     }
 }
@@ -0,0 +1,203 @@
+package com.arbi.redis;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XClaimArgs;
+import io.lettuce.core.XPendingArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.PendingMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Moves pending entries of dead consumers, those without a fresh heartbeat in
+ * {@link OrderConsumerRegistry}, to this consumer, processes them, and dead-letters entries past
+ * {@code app.orders.max-deliveries}. Each dead consumer's entries idle longer than
+ * {@code app.orders.reclaim-min-idle} are found with XPENDING and taken with XCLAIM; entries of live
+ * consumers are left alone however long they take, only this consumer's own failed entries are retried.
+ * Only streams assigned to this instance are reclaimed, so a partition's new owner also picks up what
+ * its previous owner left pending.
+ */
+@Component
+@Slf4j
+public class OrderReclaimer implements SchedulingConfigurer {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderConsumerRegistry consumerRegistry;
+
+    @Autowired
+    private OrderPartitionAssigner assigner;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::reclaim, properties.getReclaimInterval());
+    }
+
+    public void reclaim() {
+        assigner.getOwnedStreams().forEach(this::reclaim);
+    }
+
+    private void reclaim(String stream) {
+        String me = consumerRegistry.getConsumerName();
+        Set<String> live = consumerRegistry.getLiveConsumers();
+        for (var consumer : redisTemplate.opsForStream().consumers(stream, properties.getGroup())) {
+            String name = consumer.consumerName();
+            if (consumer.pendingCount() > 0 && (name.equals(me) || !live.contains(name))) {
+                reclaim(stream, name);
+            }
+        }
+    }
+
+    /**
+     * Claims the idle entries {@code owner} has pending, a page at a time in id order.
+     */
+    private void reclaim(String stream, String owner) {
+        var start = Range.Boundary.<String>unbounded();
+        while (true) {
+            List<PendingMessage> pending = idlePending(stream, owner, start);
+            if (pending == null || pending.isEmpty()) {
+                return;
+            }
+            List<StreamMessage<byte[], byte[]>> claimed = claim(stream,
+                    pending.stream().map(PendingMessage::getId).toArray(String[]::new));
+            if (claimed == null) {
+                return;
+            }
+            // XCLAIM counted one more delivery
+            Map<String, Long> deliveries = new HashMap<>();
+            pending.forEach(message -> deliveries.put(message.getId(), message.getRedeliveryCount() + 1));
+            handle(stream, claimed, deliveries);
+            if (pending.size() < properties.getReclaimBatchSize()) {
+                return;
+            }
+            start = Range.Boundary.excluding(pending.get(pending.size() - 1).getId());
+        }
+    }
+
+    private List<PendingMessage> idlePending(String stream, String owner, Range.Boundary<String> start) {
+        var range = Range.from(start, Range.Boundary.<String>unbounded());
+        var args = XPendingArgs.Builder
+                .xpending(Consumer.from(bytes(properties.getGroup()), bytes(owner)), range,
+                        Limit.from(properties.getReclaimBatchSize()))
+                .idle(properties.getReclaimMinIdle());
+        return execute(stream, "XPENDING", commands -> commands.xpending(bytes(stream), args));
+    }
+
+    /**
+     * XCLAIM checks the idle time again, so an entry its owner touched in the meantime stays with it.
+     */
+    private List<StreamMessage<byte[], byte[]>> claim(String stream, String[] ids) {
+        var consumer = Consumer.from(bytes(properties.getGroup()), bytes(consumerRegistry.getConsumerName()));
+        var args = XClaimArgs.Builder.minIdleTime(properties.getReclaimMinIdle());
+        return execute(stream, "XCLAIM", commands -> commands.xclaim(bytes(stream), consumer, args, ids));
+    }
+
+    private <T> T execute(String stream, String command,
+                          Function<RedisStreamAsyncCommands<byte[], byte[]>, RedisFuture<T>> call) {
+        return redisTemplate.execute((RedisCallback<T>) connection -> {
+            try {
+                return call.apply(streamCommands(connection))
+                        .get(properties.getPollTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException exception) {
+                log.warn("{} failed on {}", command, stream, exception);
+                return null;
+            }
+        });
+    }
+
+    private void handle(String stream, List<StreamMessage<byte[], byte[]>> messages, Map<String, Long> deliveries) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<RecordId> done = new ArrayList<>(messages.size());
+        for (StreamMessage<byte[], byte[]> message : messages) {
+            if (message.getBody() == null || message.getBody().isEmpty()) {
+                // deleted from the stream while pending, returned without a body
+                log.warn("Pending order {} no longer exists in {}, acknowledged", message.getId(), stream);
+                done.add(RecordId.of(message.getId()));
+                continue;
+            }
+            MapRecord<String, byte[], byte[]> record = toRecord(message);
+            if (deliveries.getOrDefault(message.getId(), 0L) > properties.getMaxDeliveries()) {
+                orderStreamOperations.add(record
+                        .withStreamKey(properties.getDeadLetterStream())
+                        .withId(RecordId.autoGenerate()));
+                log.warn("Order {} exceeded {} deliveries, moved to {}", message.getId(),
+                        properties.getMaxDeliveries(), properties.getDeadLetterStream());
+                done.add(record.getId());
+                continue;
+            }
+
+            try {
+                ObjectRecord<String, Order> order = orderStreamOperations.map(record, Order.class);
+                orderListener.onRedelivery(order);
+                done.add(record.getId());
+            } catch (RuntimeException exception) {
+                log.warn("Reclaimed order {} failed, left pending", message.getId(), exception);
+            }
+        }
+
+        deduplicator.acknowledge(stream, properties.getGroup(), done);
+    }
+
+    private MapRecord<String, byte[], byte[]> toRecord(StreamMessage<byte[], byte[]> message) {
+        ByteRecord raw = StreamRecords.rawBytes(message.getBody())
+                .withStreamKey(message.getStream())
+                .withId(RecordId.of(message.getId()));
+        return orderStreamOperations.deserializeRecord(raw);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisStreamAsyncCommands<byte[], byte[]> streamCommands(RedisConnection connection) {
+        return (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the pending-entry count and consumer lag of the order group as gauges, summed over all
+ * order streams. Both are sampled on a schedule, so a scrape never talks to Redis.
+ */
+@Component
+@Slf4j
+public class OrderStreamMetrics implements SchedulingConfigurer {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private MetricsProperties metricsProperties;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lag = new AtomicLong();
+
+    @PostConstruct
+    public void register() {
+        Tags tags = Tags.of("stream", properties.getStream(), "group", properties.getGroup());
+        Gauge.builder("orders.stream.pending", pending, AtomicLong::get)
+                .description("Entries delivered to the group but not yet acknowledged")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("orders.stream.lag", lag, AtomicLong::get)
+                .description("Entries not yet delivered to the group")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::refresh, metricsProperties.getStreamInterval());
+    }
+
+    public void refresh() {
+        long totalPending = 0;
+        long totalLag = 0;
+        for (String stream : partitions.streams()) {
+            try {
+                var groups = redisTemplate.opsForStream().groups(stream);
+                for (StreamInfo.XInfoGroup group : groups) {
+                    if (properties.getGroup().equals(group.groupName())) {
+                        totalPending += group.pendingCount();
+                        totalLag += lag(stream, group);
+                    }
+                }
+            } catch (RuntimeException exception) {
+                log.debug("Could not sample {}: {}", stream, exception.getMessage());
+            }
+        }
+        pending.set(totalPending);
+        lag.set(totalLag);
+    }
+
+    /**
+     * Redis 7 reports the lag directly; older servers get a bounded XRANGE after the last delivered id.
+     */
+    private long lag(String stream, StreamInfo.XInfoGroup group) {
+        if (group.getRaw().get("lag") instanceof Long reported) {
+            return reported;
+        }
+
+        byte[] key = stream.getBytes(StandardCharsets.UTF_8);
+        Range<String> undelivered = Range.rightUnbounded(Range.Bound.exclusive(group.lastDeliveredId()));
+        Limit limit = Limit.limit().count((int) metricsProperties.getStreamLagScanLimit());
+        Integer count = redisTemplate.execute((RedisCallback<Integer>) connection -> {
+            var records = connection.streamCommands().xRange(key, undelivered, limit);
+            return records != null ? records.size() : 0;
+        });
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,257 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.orders")
+public class OrderStreamProperties {
+
+    private String stream = "orders";
+
+    private String group = "my-group";
+
+    private ListenerMode listenerMode = ListenerMode.SINGLE;
+
+    /**
+     * Maximum records fetched by one XREADGROUP in batch mode.
+     */
+    private int batchSize = 100;
+
+    private Duration pollTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Longest a processed record waits for its batch XACK in reactive mode.
+     */
+    private Duration ackInterval = Duration.ofMillis(100);
+
+    /**
+     * Worker threads processing a batch in parallel, or records in flight in reactive mode.
+     */
+    private int concurrency = 8;
+
+    /**
+     * Consumer name inside the group. Defaults to a name derived from the instance id so replicas never collide.
+     */
+    private String consumerName;
+
+    private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+    /**
+     * Consumers without a heartbeat for this long are treated as dead.
+     */
+    private Duration heartbeatTimeout = Duration.ofSeconds(30);
+
+    private Duration reclaimInterval = Duration.ofSeconds(30);
+
+    /**
+     * Pending entries idle for longer than this are claimed by the reclaimer.
+     */
+    private Duration reclaimMinIdle = Duration.ofSeconds(60);
+
+    private int reclaimBatchSize = 100;
+
+    /**
+     * Entries delivered more often than this are moved to the dead-letter stream.
+     */
+    private int maxDeliveries = 5;
+
+    private String deadLetterStream = "orders:dlq";
+
+    private Publisher publisher = new Publisher();
+
+    private Aggregation aggregation = new Aggregation();
+
+    private Dedup dedup = new Dedup();
+
+    private Partitioning partitioning = new Partitioning();
+
+    private Archive archive = new Archive();
+
+    public enum ListenerMode {
+        SINGLE, BATCH, REACTIVE
+    }
+
+    public enum LegacyStream {
+        /**
+         * Keep consuming the unpartitioned stream next to the partitions until it is drained.
+         */
+        DRAIN,
+        IGNORE
+    }
+
+    public enum TrimStrategy {
+        NONE, MAXLEN, MINID
+    }
+
+    @Data
+    public static class Publisher {
+
+        /**
+         * Orders waiting to be written. Publishing fails fast once the buffer is full.
+         */
+        private int bufferCapacity = 10_000;
+
+        /**
+         * Maximum XADD commands sent in one pipeline.
+         */
+        private int batchSize = 256;
+
+        /**
+         * How long the first buffered order waits for more orders before the batch is flushed.
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        private TrimStrategy trimStrategy = TrimStrategy.MAXLEN;
+
+        /**
+         * Approximate stream length kept by MAXLEN trimming.
+         */
+        private long maxLength = 1_000_000L;
+
+        /**
+         * Age of the oldest entry kept by MINID trimming.
+         */
+        private Duration retention = Duration.ofHours(24);
+
+        /**
+         * Whether {@link OrderPublisher} publishes a sample order every 10 seconds.
+         */
+        private boolean sampleOrders = true;
+    }
+
+    @Data
+    public static class Aggregation {
+
+        private boolean enabled = true;
+
+        /**
+         * Consumer group of the aggregator, separate from {@code group} so aggregation never
+         * interferes with order processing.
+         */
+        private String group = "orders-aggregator";
+
+        private String keyPrefix = "orders:agg";
+
+        /**
+         * How often folded records are written to Redis and acknowledged.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * Buffered records that force a flush before the interval has passed.
+         */
+        private int maxBuffered = 10_000;
+
+        /**
+         * Entries left pending this long by another aggregator are taken over.
+         */
+        private Duration claimMinIdle = Duration.ofSeconds(30);
+
+        /**
+         * How long pane aggregates are kept in Redis.
+         */
+        private Duration retention = Duration.ofDays(2);
+
+        private Map<String, Window> windows = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Window {
+
+        private Duration size;
+
+        /**
+         * Step between successive windows. Defaults to {@code size}, a tumbling window; a shorter
+         * step gives a sliding window and must divide {@code size}.
+         */
+        private Duration slide;
+
+        public Duration getPane() {
+            return slide != null ? slide : size;
+        }
+    }
+
+    @Data
+    public static class Dedup {
+
+        private boolean enabled = true;
+
+        private String keyPrefix = "orders:seen:";
+
+        /**
+         * Lifetime of one local filter generation. Ids are remembered locally for one to two windows
+         * and in Redis for two.
+         */
+        private Duration window = Duration.ofMinutes(10);
+
+        /**
+         * Ids one filter generation is sized for. Memory is fixed by this and {@code false-positive-rate}.
+         */
+        private long expectedInsertions = 1_000_000L;
+
+        private double falsePositiveRate = 0.01;
+    }
+
+    @Data
+    public static class Partitioning {
+
+        /**
+         * Streams {@code <stream>:{p}} that orders are spread over by a hash of their id; 1 keeps the
+         * single {@code stream}. Ids move between partitions when this changes, so change it only once
+         * the streams are drained.
+         */
+        private int partitions = 1;
+
+        /**
+         * What partitioned consumers do with the single stream written before partitioning was enabled.
+         */
+        private LegacyStream legacy = LegacyStream.DRAIN;
+    }
+
+    @Data
+    public static class Archive {
+
+        private boolean enabled = false;
+
+        /**
+         * One sub-directory of segment files per order stream.
+         */
+        private Path directory = Path.of("data", "orders-archive");
+
+        /**
+         * Mapped size of one segment file; at most 2GB.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Every n-th entry of a segment is noted in its sparse index.
+         */
+        private int indexInterval = 256;
+
+        /**
+         * Entries younger than this stay in Redis only. The archiver trims the stream itself, so set
+         * {@code app.orders.publisher.trim-strategy=none}; the archiver fails to start otherwise.
+         */
+        private Duration retain = Duration.ofHours(1);
+
+        private Duration interval = Duration.ofSeconds(10);
+
+        /**
+         * How long the instance archiving a stream keeps it without renewing. Renewed on every run and
+         * batch, so it has to outlast {@code interval}.
+         */
+        private Duration lease = Duration.ofMinutes(1);
+
+        /**
+         * Entries read by one XRANGE.
+         */
+        private int batchSize = 1000;
+    }
+}
@@ -0,0 +1,88 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.Subscription;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscribes {@link OrderListener} to every order stream assigned to this instance, in single mode.
+ * The container polls each subscription on its own task, so records of one stream are handled one
+ * at a time and in order. Each record is acknowledged once it was handled; one whose handling throws
+ * stays pending for {@link OrderReclaimer}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders", name = "listener-mode", havingValue = "single", matchIfMissing = true)
+public class OrderStreamSubscriber implements OrderPartitionAssigner.Listener {
+
+    @Autowired
+    private StreamMessageListenerContainer<String, ObjectRecord<String, Order>> orderContainer;
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderConsumerRegistry consumerRegistry;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @Autowired
+    private OrderPartitionAssigner assigner;
+
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        assigner.addListener(this);
+    }
+
+    public Map<String, Subscription> getSubscriptions() {
+        return subscriptions;
+    }
+
+    @Override
+    public void assigned(String stream) {
+        partitions.createGroup(stream, properties.getGroup(), ReadOffset.latest());
+
+        var offset = StreamOffset.create(stream, ReadOffset.lastConsumed());
+        var readRequest = StreamMessageListenerContainer.StreamReadRequest
+                .builder(offset)
+                .consumer(consumerRegistry.getConsumer())
+                .autoAcknowledge(false)
+                .cancelOnError(throwable -> false)
+                .errorHandler(throwable -> log.warn(throwable.getMessage()))
+                .build();
+        subscriptions.put(stream, orderContainer.register(readRequest, this::handle));
+    }
+
+    private void handle(ObjectRecord<String, Order> record) {
+        orderListener.onMessage(record);
+        deduplicator.acknowledge(record.getStream(), properties.getGroup(), List.of(record.getId()));
+    }
+
+    @Override
+    public void revoked(String stream) {
+        Subscription subscription = subscriptions.remove(stream);
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+}
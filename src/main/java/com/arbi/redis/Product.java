@@ -22,6 +22,8 @@ public class Product implements Serializable {
 
     private Long price;
 
+    private Long stock;
+
     @TimeToLive(unit = TimeUnit.SECONDS)
     private Long ttl = -1L;
 }
@@ -0,0 +1,16 @@
+package com.arbi.redis;
+
+import java.util.List;
+
+/**
+ * Pipelined replacements for the per-entity loops of {@code saveAll} and {@code findAllById}. Saves
+ * also update the {@link ProductIndex} in the same pipeline.
+ */
+public interface ProductBulkOperations {
+
+    <S extends Product> S save(S entity);
+
+    <S extends Product> List<S> saveAll(Iterable<S> entities);
+
+    List<Product> findAllById(Iterable<String> ids);
+}
@@ -0,0 +1,229 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisKeyValueAdapter.EnableKeyspaceEvents;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.TimeToLive;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the same keys as {@link RedisKeyValueAdapter#put} (hash, keyspace set, expiry and phantom
+ * copy) and reads the same way as {@link RedisKeyValueAdapter#get}, but one pipeline per chunk
+ * instead of one round trip per command, with the {@link ProductIndex} update in the same pipeline.
+ * Entities without an id or with {@code @Indexed} data still go through the regular per-entity path.
+ */
+public class ProductBulkOperationsImpl implements ProductBulkOperations {
+
+    private static final byte[] PHANTOM_SUFFIX = ":phantom".getBytes(StandardCharsets.UTF_8);
+
+    private static final long PHANTOM_KEY_TTL = 300L;
+
+    @Autowired
+    private RedisKeyValueAdapter redisKeyValueAdapter;
+
+    @Autowired
+    private RedisKeyValueTemplate redisKeyValueTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> binaryRedisTemplate;
+
+    @Autowired
+    private ProductProperties properties;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private LuaScriptRegistry scriptRegistry;
+
+    private String keyspace() {
+        return entity().getKeySpace();
+    }
+
+    private RedisPersistentEntity<?> entity() {
+        return redisKeyValueAdapter.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+    }
+
+    @Override
+    public <S extends Product> S save(S entity) {
+        return saveAll(List.of(entity)).get(0);
+    }
+
+    @Override
+    public <S extends Product> List<S> saveAll(Iterable<S> entities) {
+        List<S> result = new ArrayList<>();
+        List<RedisData> chunk = new ArrayList<>(properties.getBulkChunkSize());
+
+        for (S entity : entities) {
+            result.add(entity);
+            if (entity.getId() != null) {
+                hotKeyDetector.evict(keyspace() + ":" + entity.getId());
+            }
+            if (entity.getId() == null) {
+                redisKeyValueTemplate.insert(entity);
+                productIndex.update(convert(entity));
+                continue;
+            }
+
+            RedisData data = convert(entity);
+            if (!data.getIndexedData().isEmpty() || startsExpirationListener(properties, data)) {
+                redisKeyValueTemplate.update(entity);
+                productIndex.update(data);
+                continue;
+            }
+
+            chunk.add(data);
+            if (chunk.size() == properties.getBulkChunkSize()) {
+                writeChunk(chunk);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Product> findAllById(Iterable<String> ids) {
+        List<Product> result = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(properties.getBulkChunkSize());
+
+        for (String id : ids) {
+            chunk.add(id);
+            if (chunk.size() == properties.getBulkChunkSize()) {
+                readChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            readChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private void writeChunk(List<RedisData> chunk) {
+        boolean shadowCopy = properties.keepsShadowCopy();
+        byte[] keyspace = bytes(keyspace());
+
+        List<Object> replies = scriptRegistry.executePipelined(binaryRedisTemplate, (RedisCallback<Object>) connection -> {
+            for (RedisData data : chunk) {
+                byte[] objectKey = objectKey(data.getId());
+                Map<byte[], byte[]> hash = data.getBucket().rawMap();
+
+                connection.keyCommands().del(objectKey);
+                connection.hashCommands().hMSet(objectKey, hash);
+                connection.setCommands().sAdd(keyspace, bytes(data.getId()));
+
+                if (expires(data)) {
+                    connection.keyCommands().expire(objectKey, data.getTimeToLive());
+                }
+
+                if (shadowCopy) {
+                    writePhantom(connection, objectKey, data);
+                }
+            }
+            // index updates go last, so their replies are the tail of the pipeline
+            for (RedisData data : chunk) {
+                productIndex.update(connection, data);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        for (Object reply : replies.subList(replies.size() - chunk.size(), replies.size())) {
+            ProductIndex.check(reply);
+        }
+    }
+
+    private RedisData convert(Product entity) {
+        RedisData data = new RedisData();
+        redisKeyValueAdapter.getConverter().write(entity, data);
+        return data;
+    }
+
+    private void writePhantom(RedisConnection connection, byte[] objectKey, RedisData data) {
+        byte[] phantomKey = concat(objectKey, PHANTOM_SUFFIX);
+        connection.keyCommands().del(phantomKey);
+        if (expires(data)) {
+            connection.hashCommands().hMSet(phantomKey, data.getBucket().rawMap());
+            connection.keyCommands().expire(phantomKey, data.getTimeToLive() + PHANTOM_KEY_TTL);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readChunk(List<String> ids, List<Product> result) {
+        var ttlProperty = entity().getExplicitTimeToLiveProperty();
+        TimeUnit ttlUnit = ttlProperty != null ? ttlProperty.getRequiredAnnotation(TimeToLive.class).unit() : null;
+
+        List<Object> replies = binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String id : ids) {
+                byte[] objectKey = objectKey(id);
+                connection.hashCommands().hGetAll(objectKey);
+                if (ttlUnit != null) {
+                    connection.keyCommands().ttl(objectKey, ttlUnit);
+                }
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        int step = ttlProperty != null ? 2 : 1;
+        for (int i = 0; i < ids.size(); i++) {
+            var raw = (Map<byte[], byte[]>) replies.get(i * step);
+            if (raw == null || raw.isEmpty()) {
+                continue;
+            }
+
+            RedisData data = new RedisData(raw);
+            data.setId(ids.get(i));
+            data.setKeyspace(keyspace());
+            Product product = redisKeyValueAdapter.getConverter().read(Product.class, data);
+            if (ttlProperty != null) {
+                product.setTtl((Long) replies.get(i * step + 1));
+            }
+            result.add(product);
+        }
+    }
+
+    /**
+     * With {@code ON_DEMAND} keyspace events, only the adapter itself can start the expiration listener.
+     */
+    static boolean startsExpirationListener(ProductProperties properties, RedisData data) {
+        return properties.getKeyspaceEvents() == EnableKeyspaceEvents.ON_DEMAND && expires(data);
+    }
+
+    static boolean expires(RedisData data) {
+        return data.getTimeToLive() != null && data.getTimeToLive() > 0;
+    }
+
+    private byte[] objectKey(String id) {
+        return bytes(keyspace() + ":" + id);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] left, byte[] right) {
+        byte[] result = new byte[left.length + right.length];
+        System.arraycopy(left, 0, result, 0, left.length);
+        System.arraycopy(right, 0, result, left.length, right.length);
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductCodec implements BinaryCodec<Product> {
+
+    @Override
+    public Class<Product> type() {
+        return Product.class;
+    }
+
+    @Override
+    public byte typeId() {
+        return 2;
+    }
+
+    @Override
+    public byte version() {
+        return 2;
+    }
+
+    @Override
+    public void write(Product value, BinaryOutput output) {
+        output.writeString(value.getId());
+        output.writeString(value.getName());
+        output.writeNullableLong(value.getPrice());
+        output.writeNullableLong(value.getTtl());
+        output.writeNullableLong(value.getStock());
+    }
+
+    @Override
+    public Product read(BinaryInput input, byte version) {
+        if (version < 1 || version > 2) {
+            throw new SerializationException("Unsupported Product version " + version);
+        }
+        return Product.builder()
+                .id(input.readString())
+                .name(input.readString())
+                .price(input.readNullableLong())
+                .ttl(input.readNullableLong())
+                .stock(version >= 2 ? input.readNullableLong() : null)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/products")
+@ConditionalOnProperty(prefix = "app.products", name = "api", havingValue = "blocking", matchIfMissing = true)
+public class ProductController {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Product> get(@PathVariable String id) {
+        return ResponseEntity.of(productRepository.findById(id));
+    }
+
+    @PutMapping("/{id}")
+    public Product put(@PathVariable String id, @RequestBody Product product) {
+        product.setId(id);
+        return productRepository.save(product);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        productRepository.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
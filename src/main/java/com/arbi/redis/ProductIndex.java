@@ -0,0 +1,179 @@
+package com.arbi.redis;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.keyvalue.core.event.KeyValueEvent;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Secondary indexes of {@link Product}:
+ * <ul>
+ *     <li>{@code products:idx:price} - sorted set of ids scored by price</li>
+ *     <li>{@code products:idx:name} - sorted set of {@code name\0id} members, all scored 0 for lex ranges</li>
+ *     <li>{@code products:idx:name:members} - hash of id to its current name member, so a rename or an
+ *     expiry can find the member to remove</li>
+ * </ul>
+ * Each update is one script, called by digest through the {@link LuaScriptRegistry}, so it can be
+ * pipelined together with the entity write. Every script replies 1; any other reply fails the write.
+ */
+@Component
+public class ProductIndex {
+
+    static final byte SEPARATOR = 0;
+
+    private static final String UPDATE = """
+            if ARGV[2] == '' then redis.call('zrem', KEYS[1], ARGV[1]) else redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]) end
+            local old = redis.call('hget', KEYS[3], ARGV[1])
+            if old and old ~= ARGV[3] then redis.call('zrem', KEYS[2], old) end
+            if ARGV[3] == '' then
+                redis.call('hdel', KEYS[3], ARGV[1])
+            else
+                redis.call('zadd', KEYS[2], 0, ARGV[3])
+                redis.call('hset', KEYS[3], ARGV[1], ARGV[3])
+            end
+            return 1
+            """;
+
+    private static final String REMOVE = """
+            redis.call('zrem', KEYS[1], ARGV[1])
+            local old = redis.call('hget', KEYS[3], ARGV[1])
+            if old then
+                redis.call('zrem', KEYS[2], old)
+                redis.call('hdel', KEYS[3], ARGV[1])
+            end
+            return 1
+            """;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisKeyValueAdapter redisKeyValueAdapter;
+
+    @Autowired
+    private LuaScriptRegistry scriptRegistry;
+
+    private LuaScript updateScript;
+
+    private LuaScript removeScript;
+
+    @PostConstruct
+    public void init() {
+        updateScript = scriptRegistry.register("product-index-update", UPDATE);
+        removeScript = scriptRegistry.register("product-index-remove", REMOVE);
+    }
+
+    public String keyspace() {
+        return redisKeyValueAdapter.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Product.class).getKeySpace();
+    }
+
+    public String priceKey() {
+        return keyspace() + ":idx:price";
+    }
+
+    public String nameKey() {
+        return keyspace() + ":idx:name";
+    }
+
+    public String membersKey() {
+        return nameKey() + ":members";
+    }
+
+    LuaScript updateScript() {
+        return updateScript;
+    }
+
+    LuaScript removeScript() {
+        return removeScript;
+    }
+
+    /**
+     * Keys followed by {@code id, price, name member} for {@link #updateScript()}, taken from the
+     * converted entity so the index always matches what was written.
+     */
+    byte[][] updateArguments(RedisData data) {
+        byte[] id = bytes(data.getId());
+        byte[] price = data.getBucket().get("price");
+        byte[] name = data.getBucket().get("name");
+        return new byte[][]{
+                bytes(priceKey()), bytes(nameKey()), bytes(membersKey()),
+                id, price != null ? price : EMPTY, name != null ? member(name, id) : EMPTY};
+    }
+
+    byte[][] removeArguments(String id) {
+        return new byte[][]{bytes(priceKey()), bytes(nameKey()), bytes(membersKey()), bytes(id)};
+    }
+
+    /**
+     * Queues the update on a pipelined connection. The caller runs the pipeline through
+     * {@link LuaScriptRegistry#executePipelined} and passes the reply to {@link #check}.
+     */
+    public void update(RedisConnection connection, RedisData data) {
+        connection.scriptingCommands().evalSha(updateScript.sha(), ReturnType.INTEGER, 3, updateArguments(data));
+    }
+
+    public void update(RedisData data) {
+        check(scriptRegistry.execute(updateScript, ReturnType.INTEGER, 3, updateArguments(data)));
+    }
+
+    public void remove(String id) {
+        check(scriptRegistry.execute(removeScript, ReturnType.INTEGER, 3, removeArguments(id)));
+    }
+
+    static void check(Object reply) {
+        if (!Long.valueOf(1L).equals(reply)) {
+            throw new IllegalStateException("Product index script replied " + reply);
+        }
+    }
+
+    public void drop() {
+        redisTemplate.delete(List.of(priceKey(), nameKey(), membersKey()));
+    }
+
+    @EventListener
+    public void onDelete(KeyValueEvent.AfterDeleteEvent<?> event) {
+        if (keyspace().equals(event.getKeyspace())) {
+            remove(String.valueOf(event.getKey()));
+        }
+    }
+
+    @EventListener
+    public void onDropKeyspace(KeyValueEvent.AfterDropKeySpaceEvent<?> event) {
+        if (keyspace().equals(event.getKeyspace())) {
+            drop();
+        }
+    }
+
+    static String idOf(byte[] member) {
+        for (int i = member.length - 1; i >= 0; i--) {
+            if (member[i] == SEPARATOR) {
+                return new String(member, i + 1, member.length - i - 1, StandardCharsets.UTF_8);
+            }
+        }
+        return new String(member, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] member(byte[] name, byte[] id) {
+        byte[] member = new byte[name.length + 1 + id.length];
+        System.arraycopy(name, 0, member, 0, name.length);
+        member[name.length] = SEPARATOR;
+        System.arraycopy(id, 0, member, name.length + 1, id.length);
+        return member;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
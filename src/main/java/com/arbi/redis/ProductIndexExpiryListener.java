@@ -0,0 +1,37 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Removes expired products from the {@link ProductIndex}. Expired keys never raise a repository
+ * delete event unless the adapter listens to keyspace events itself, so the index follows the
+ * {@code expired} notifications instead (requires {@code notify-keyspace-events} to include {@code Ex},
+ * see {@link KeyspaceNotifications}).
+ */
+@Component
+public class ProductIndexExpiryListener implements MessageListener {
+
+    private static final String PHANTOM_SUFFIX = ":phantom";
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        String prefix = productIndex.keyspace() + ":";
+        if (!key.startsWith(prefix) || key.endsWith(PHANTOM_SUFFIX)) {
+            return;
+        }
+
+        String id = key.substring(prefix.length());
+        if (!id.startsWith("idx:")) {
+            productIndex.remove(id);
+        }
+    }
+}
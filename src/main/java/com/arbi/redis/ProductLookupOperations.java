@@ -0,0 +1,12 @@
+package com.arbi.redis;
+
+import java.util.Optional;
+
+/**
+ * Single-product lookup that reports the key to the {@link HotKeyDetector} and serves promoted keys
+ * from their local copy.
+ */
+public interface ProductLookupOperations {
+
+    Optional<Product> findById(String id);
+}
@@ -0,0 +1,49 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+
+import java.util.Optional;
+
+public class ProductLookupOperationsImpl implements ProductLookupOperations {
+
+    @Autowired
+    private RedisKeyValueTemplate redisKeyValueTemplate;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    /**
+     * The local copy of a promoted product. {@link Product} is mutable, so the copy keeps its fields and
+     * every read gets its own instance; a caller changing one cannot change what the next one reads.
+     */
+    private record Snapshot(String id, String name, Long price, Long stock, Long ttl) {
+
+        private static final Snapshot ABSENT = new Snapshot(null, null, null, null, null);
+
+        static Snapshot of(Optional<Product> product) {
+            return product.map(value -> new Snapshot(value.getId(), value.getName(), value.getPrice(),
+                    value.getStock(), value.getTtl())).orElse(ABSENT);
+        }
+
+        Optional<Product> toProduct() {
+            return this == ABSENT ? Optional.empty() : Optional.of(new Product(id, name, price, stock, ttl));
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(String id) {
+        String key = productIndex.keyspace() + ":" + id;
+        hotKeyDetector.record(key);
+        if (hotKeyDetector.getCopy(key) instanceof Snapshot copy) {
+            return copy.toProduct();
+        }
+
+        Optional<Product> product = redisKeyValueTemplate.findById(id, Product.class);
+        hotKeyDetector.putCopy(key, Snapshot.of(product));
+        return product;
+    }
+}
@@ -0,0 +1,42 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.redis.core.RedisKeyValueAdapter.EnableKeyspaceEvents;
+import org.springframework.data.redis.core.RedisKeyValueAdapter.ShadowCopy;
+
+@Data
+@ConfigurationProperties(prefix = "app.products")
+public class ProductProperties {
+
+    /**
+     * Products written or read per pipeline by the bulk repository operations.
+     */
+    private int bulkChunkSize = 500;
+
+    /**
+     * Which implementation serves {@code /api/products}.
+     */
+    private Api api = Api.BLOCKING;
+
+    /**
+     * Applied to the repository's {@code RedisKeyValueAdapter} by {@link RepositoryConfig}, and followed
+     * by the pipelined bulk and reactive writes.
+     */
+    private EnableKeyspaceEvents keyspaceEvents = EnableKeyspaceEvents.OFF;
+
+    private ShadowCopy shadowCopy = ShadowCopy.DEFAULT;
+
+    /**
+     * Mirrors the adapter: a shadow copy is kept when forced on, or by default once keyspace events
+     * are being listened to.
+     */
+    public boolean keepsShadowCopy() {
+        return shadowCopy == ShadowCopy.ON
+                || shadowCopy == ShadowCopy.DEFAULT && keyspaceEvents == EnableKeyspaceEvents.ON_STARTUP;
+    }
+
+    public enum Api {
+        BLOCKING, REACTIVE
+    }
+}
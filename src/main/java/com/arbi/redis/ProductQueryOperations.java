@@ -0,0 +1,29 @@
+package com.arbi.redis;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Range queries served from the {@link ProductIndex} sorted sets instead of scanning the keyspace.
+ *
+ * <p>Page totals are counted in the index and are approximate: a product that expired is counted until
+ * its {@code expired} event removed it from the index, which never happens for events missed while no
+ * node was subscribed. Ids found gone on the returned page itself are not counted.
+ */
+public interface ProductQueryOperations {
+
+    /**
+     * Products priced within {@code [min, max]}, cheapest first unless the pageable sorts
+     * {@code price} descending.
+     */
+    Page<Product> findByPriceBetween(long min, long max, Pageable pageable);
+
+    /**
+     * Products whose name starts with {@code prefix}, in name order.
+     */
+    Page<Product> findByNameStartingWith(String prefix, Pageable pageable);
+
+    List<Product> findMostExpensive(int limit);
+}
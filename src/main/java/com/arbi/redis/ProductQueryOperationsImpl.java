@@ -0,0 +1,141 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves a page of ids from the index, then loads the products with one pipelined
+ * {@link ProductBulkOperations#findAllById}. Ids whose product is gone (expired before the index
+ * caught up) are removed from the index on the way and taken off the page's total.
+ */
+public class ProductQueryOperationsImpl implements ProductQueryOperations {
+
+    /**
+     * Never part of a UTF-8 name, so {@code prefix + 0xFF} sorts after every name with that prefix.
+     */
+    private static final byte NAME_UPPER_BOUND = (byte) 0xFF;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private ProductBulkOperationsImpl productBulkOperations;
+
+    @Override
+    public Page<Product> findByPriceBetween(long min, long max, Pageable pageable) {
+        Range<Double> range = Range.closed((double) min, (double) max);
+        Sort.Order order = pageable.getSort().getOrderFor("price");
+        boolean descending = order != null && order.isDescending();
+
+        Long total = redisTemplate.opsForZSet().count(productIndex.priceKey(), min, max);
+        if (pageable.isUnpaged()) {
+            Set<String> ids = descending
+                    ? redisTemplate.opsForZSet().reverseRangeByScore(productIndex.priceKey(), min, max)
+                    : redisTemplate.opsForZSet().rangeByScore(productIndex.priceKey(), min, max);
+            return page(ids, pageable, total != null ? total : 0);
+        }
+
+        Limit limit = Limit.limit().offset((int) pageable.getOffset()).count(pageable.getPageSize());
+        Set<byte[]> ids = redisTemplate.execute((RedisCallback<Set<byte[]>>) connection -> descending
+                ? connection.zSetCommands().zRevRangeByScore(bytes(productIndex.priceKey()), range, limit)
+                : connection.zSetCommands().zRangeByScore(bytes(productIndex.priceKey()), range, limit));
+        return page(strings(ids, ProductQueryOperationsImpl::string), pageable, total != null ? total : 0);
+    }
+
+    @Override
+    public Page<Product> findByNameStartingWith(String prefix, Pageable pageable) {
+        byte[] lower = bytes(prefix);
+        byte[] upper = new byte[lower.length + 1];
+        System.arraycopy(lower, 0, upper, 0, lower.length);
+        upper[lower.length] = NAME_UPPER_BOUND;
+        Range<byte[]> range = Range.closed(lower, upper);
+        byte[] key = bytes(productIndex.nameKey());
+
+        Limit limit = pageable.isUnpaged()
+                ? Limit.unlimited()
+                : Limit.limit().offset((int) pageable.getOffset()).count(pageable.getPageSize());
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zLexCount(key, range);
+            connection.zSetCommands().zRangeByLex(key, range, limit);
+            return null;
+        }, RedisSerializer.byteArray());
+
+        long total = replies.get(0) != null ? (Long) replies.get(0) : 0;
+        @SuppressWarnings("unchecked")
+        Collection<byte[]> members = replies.get(1) != null ? (Collection<byte[]>) replies.get(1) : List.of();
+        List<String> ids = members.stream().map(ProductIndex::idOf).toList();
+        return page(ids, pageable, total);
+    }
+
+    @Override
+    public List<Product> findMostExpensive(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return load(redisTemplate.opsForZSet().reverseRange(productIndex.priceKey(), 0, limit - 1));
+    }
+
+    /**
+     * The page of {@code ids}, with the indexed {@code total} less the ids found gone on this page.
+     */
+    private Page<Product> page(Collection<String> ids, Pageable pageable, long total) {
+        List<Product> content = load(ids);
+        long gone = ids != null ? ids.size() - content.size() : 0;
+        return new PageImpl<>(content, pageable, total - gone);
+    }
+
+    private List<Product> load(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Product> found = productBulkOperations.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> result = new ArrayList<>(found.size());
+        for (String id : ids) {
+            Product product = found.get(id);
+            if (product != null) {
+                result.add(product);
+            } else {
+                productIndex.remove(id);
+            }
+        }
+        return result;
+    }
+
+    private static <T> Set<String> strings(Set<T> values, Function<T, String> mapper) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream().map(mapper).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,15 @@ package com.arbi.redis;
 import org.springframework.data.keyvalue.repository.KeyValueRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends KeyValueRepository<Product, String> {
+public interface ProductRepository extends KeyValueRepository<Product, String>, ProductBulkOperations,
+        ProductQueryOperations, ProductLookupOperations, ProductScriptOperations {
+
+    @Override
+    <S extends Product> S save(S entity);
+
+    @Override
+    Optional<Product> findById(String id);
 }
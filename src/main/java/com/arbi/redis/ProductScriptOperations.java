@@ -0,0 +1,39 @@
+package com.arbi.redis;
+
+import java.util.Map;
+
+/**
+ * Multi-step product updates that run as one script each: atomic, so concurrent writers cannot
+ * interleave, and one round trip including the eviction of the cached product and the near cache
+ * invalidation broadcast.
+ */
+public interface ProductScriptOperations {
+
+    /**
+     * Sets the price only while it still is {@code expected}.
+     *
+     * @return whether the price was changed
+     */
+    boolean compareAndSetPrice(String id, long expected, long price);
+
+    /**
+     * Sets the price of an existing product and evicts it from the cache.
+     *
+     * @return whether the product exists
+     */
+    boolean updatePrice(String id, long price);
+
+    /**
+     * Takes {@code quantities} off the stock of every product, or off none of them when any product
+     * is missing or has too little stock.
+     *
+     * @throws IllegalArgumentException if {@code quantities} is empty or holds a quantity that is not positive
+     */
+    StockDecrement decrementStock(Map<String, Long> quantities);
+
+    /**
+     * @param stock remaining stock when applied, otherwise the current stock; -1 for a missing product
+     */
+    record StockDecrement(boolean applied, Map<String, Long> stock) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.arbi.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.ReturnType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductScriptOperationsImpl implements ProductScriptOperations {
+
+    private static final String CACHE_NAME = "products";
+
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * KEYS: hash, phantom copy, price index, cache entry. ARGV: id, expected price or empty, price,
+     * invalidation channel, invalidation message. Returns -1 for a missing product, 0 for a price
+     * that changed in the meantime, 1 when updated.
+     */
+    private static final String SET_PRICE = """
+            if redis.call('exists', KEYS[1]) == 0 then
+                return -1
+            end
+            if ARGV[2] ~= '' and redis.call('hget', KEYS[1], 'price') ~= ARGV[2] then
+                return 0
+            end
+            redis.call('hset', KEYS[1], 'price', ARGV[3])
+            if redis.call('exists', KEYS[2]) == 1 then
+                redis.call('hset', KEYS[2], 'price', ARGV[3])
+            end
+            redis.call('zadd', KEYS[3], ARGV[3], ARGV[1])
+            redis.call('del', KEYS[4])
+            redis.call('publish', ARGV[4], ARGV[5])
+            return 1
+            """;
+
+    /**
+     * KEYS: n hashes, n phantom copies, n cache entries. ARGV: n quantities, invalidation channel, n
+     * invalidation messages. Returns 1 or 0 for applied, followed by the stock of every product.
+     */
+    private static final String DECREMENT_STOCK = """
+            local n = #KEYS / 3
+            local result = {1}
+            for i = 1, n do
+                local stock = tonumber(redis.call('hget', KEYS[i], 'stock') or '-1')
+                result[i + 1] = stock
+                if stock < tonumber(ARGV[i]) then
+                    result[1] = 0
+                end
+            end
+            if result[1] == 0 then
+                return result
+            end
+            for i = 1, n do
+                result[i + 1] = redis.call('hincrby', KEYS[i], 'stock', -ARGV[i])
+                if redis.call('exists', KEYS[n + i]) == 1 then
+                    redis.call('hincrby', KEYS[n + i], 'stock', -ARGV[i])
+                end
+                redis.call('del', KEYS[2 * n + i])
+                redis.call('publish', ARGV[n + 1], ARGV[n + 1 + i])
+            end
+            return result
+            """;
+
+    @Autowired
+    private LuaScriptRegistry scriptRegistry;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private NearCacheManager nearCacheManager;
+
+    @Autowired
+    private NearCacheProperties nearCacheProperties;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    private LuaScript setPrice;
+
+    private LuaScript decrementStock;
+
+    @PostConstruct
+    public void registerScripts() {
+        setPrice = scriptRegistry.register("product-set-price", SET_PRICE);
+        decrementStock = scriptRegistry.register("product-decrement-stock", DECREMENT_STOCK);
+    }
+
+    @Override
+    public boolean compareAndSetPrice(String id, long expected, long price) {
+        return setPrice(id, bytes(String.valueOf(expected)), price) == 1;
+    }
+
+    @Override
+    public boolean updatePrice(String id, long price) {
+        return setPrice(id, EMPTY, price) == 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public StockDecrement decrementStock(Map<String, Long> quantities) {
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("No quantities to take off");
+        }
+        quantities.forEach((id, quantity) -> {
+            // the script adds whatever it is given with a minus sign, so this would raise the stock
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity of " + id + " must be positive, got " + quantity);
+            }
+        });
+        List<String> ids = new ArrayList<>(quantities.keySet());
+        int n = ids.size();
+        byte[][] keysAndArgs = new byte[n * 3 + n + 1 + n][];
+        for (int i = 0; i < n; i++) {
+            String id = ids.get(i);
+            keysAndArgs[i] = objectKey(id);
+            keysAndArgs[n + i] = phantomKey(id);
+            keysAndArgs[2 * n + i] = cacheKey(id);
+            keysAndArgs[3 * n + i] = bytes(String.valueOf(quantities.get(id)));
+            keysAndArgs[4 * n + 1 + i] = invalidation(id);
+        }
+        keysAndArgs[4 * n] = bytes(nearCacheProperties.getInvalidationChannel());
+
+        List<Long> result = scriptRegistry.execute(decrementStock, ReturnType.MULTI, n * 3, keysAndArgs);
+        boolean applied = result.get(0) == 1;
+        Map<String, Long> stock = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            stock.put(ids.get(i), result.get(i + 1));
+            if (applied) {
+                evictLocal(ids.get(i));
+            }
+        }
+        return new StockDecrement(applied, stock);
+    }
+
+    private long setPrice(String id, byte[] expected, long price) {
+        Long result = scriptRegistry.execute(setPrice, ReturnType.INTEGER, 4,
+                objectKey(id), phantomKey(id), bytes(productIndex.priceKey()), cacheKey(id),
+                bytes(id), expected, bytes(String.valueOf(price)),
+                bytes(nearCacheProperties.getInvalidationChannel()), invalidation(id));
+        if (result != null && result == 1) {
+            evictLocal(id);
+        }
+        return result != null ? result : -1;
+    }
+
+    /**
+     * The script already dropped the Redis copies and told the other nodes; this node's own copies
+     * are dropped here, since it ignores its own broadcasts.
+     */
+    private void evictLocal(String id) {
+        nearCacheManager.invalidateLocal(CACHE_NAME, id);
+        hotKeyDetector.evict(productIndex.keyspace() + ":" + id);
+        hotKeyDetector.evict(new String(cacheKey(id), StandardCharsets.UTF_8));
+    }
+
+    private byte[] invalidation(String id) {
+        try {
+            return objectMapper.writeValueAsBytes(new CacheInvalidation(instanceId.get(), CACHE_NAME, id));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private byte[] objectKey(String id) {
+        return bytes(productIndex.keyspace() + ":" + id);
+    }
+
+    private byte[] phantomKey(String id) {
+        return bytes(productIndex.keyspace() + ":" + id + ":phantom");
+    }
+
+    private byte[] cacheKey(String id) {
+        RedisCache cache = nearCacheManager.getCache(CACHE_NAME) instanceof NearCache nearCache
+                ? nearCache.getRemoteCache() : (RedisCache) nearCacheManager.getCache(CACHE_NAME);
+        return bytes(cache.getCacheConfiguration().getKeyPrefixFor(CACHE_NAME) + id);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
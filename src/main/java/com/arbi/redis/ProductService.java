@@ -9,7 +9,7 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class ProductService {
 
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = "products", key = "#id", sync = true)
     public Product getProduct(String id) {
         log.info("get Product {}", id);
         return Product.builder()
@@ -0,0 +1,61 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Applies {@code app.pubsub.dispatch} to the message listener container. In {@code ASYNC} mode the
+ * container hands each message to a {@link QueuedMessageListener} on the thread that read it, which
+ * only enqueues, so the subscriber connection keeps draining however slow the listeners are.
+ */
+@Component
+public class PubSubDispatcher {
+
+    @Autowired
+    private PubSubProperties properties;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    private final List<QueuedMessageListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void configure(RedisMessageListenerContainer container) {
+        if (properties.getDispatch() != PubSubProperties.Dispatch.DIRECT) {
+            container.setTaskExecutor(new SyncTaskExecutor());
+        }
+    }
+
+    public MessageListener wrap(MessageListener listener) {
+        if (properties.getDispatch() == PubSubProperties.Dispatch.DIRECT) {
+            return listener;
+        }
+        var queued = new QueuedMessageListener(listener.getClass().getSimpleName(), listener, properties,
+                instanceId.get(), redisTemplate, meterRegistry);
+        listeners.add(queued);
+        return queued;
+    }
+
+    public List<QueuedMessageListener> getListeners() {
+        return listeners;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listeners.forEach(QueuedMessageListener::shutdown);
+    }
+}
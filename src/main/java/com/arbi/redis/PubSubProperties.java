@@ -0,0 +1,62 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.pubsub")
+public class PubSubProperties {
+
+    public enum Dispatch {
+        /**
+         * Listeners run on the container's task executor, as Spring Data Redis does by default.
+         */
+        DIRECT,
+        /**
+         * Messages are queued per listener and channel and handed to one virtual thread each.
+         */
+        ASYNC,
+        /**
+         * {@code customers} is received through the reactive container, buffered up to the queue
+         * capacity with drop-oldest; other channels are dispatched as in {@code ASYNC}.
+         */
+        REACTIVE
+    }
+
+    public enum OverflowPolicy {
+        DROP_OLDEST, BLOCK, SPILL
+    }
+
+    private Dispatch dispatch = Dispatch.ASYNC;
+
+    private int queueCapacity = 10_000;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * How long {@code BLOCK} holds the subscriber connection before the message is dropped.
+     */
+    private Duration blockTimeout = Duration.ofMillis(100);
+
+    /**
+     * Spill streams are {@code <prefix><instance id>:<listener>:<channel>}, private to one listener of
+     * one node.
+     */
+    private String spillStreamPrefix = "pubsub:spill:";
+
+    /**
+     * Lifetime of a spill stream after its last spill, so streams of nodes that stopped go away.
+     */
+    private Duration spillRetention = Duration.ofHours(1);
+
+    /**
+     * Messages waiting to be written to the spill stream; beyond this they are dropped.
+     */
+    private int spillBufferCapacity = 10_000;
+
+    private int spillBatchSize = 256;
+
+    private Duration spillPollInterval = Duration.ofMillis(100);
+}
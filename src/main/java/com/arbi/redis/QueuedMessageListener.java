@@ -0,0 +1,294 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples a listener from the subscriber connection: {@link #onMessage} only appends to a bounded
+ * queue per channel, and one virtual thread per channel delivers the queue in order. When a queue is
+ * full the {@code app.pubsub.overflow-policy} decides between dropping the oldest message, blocking
+ * the reader for up to {@code block-timeout}, or spilling to a stream, which is replayed in order once
+ * the queue has drained. The spill stream, {@code <spill-stream-prefix><instance id>:<name>:<channel>},
+ * belongs to this listener on this node alone, so no other node or listener replays its messages.
+ */
+@Slf4j
+public class QueuedMessageListener implements MessageListener {
+
+    private static final byte[] BODY = "body".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] PATTERN = "pattern".getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+
+    private final MessageListener delegate;
+
+    private final PubSubProperties properties;
+
+    private final String instanceId;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ChannelQueue> queues = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    public QueuedMessageListener(String name,
+                                 MessageListener delegate,
+                                 PubSubProperties properties,
+                                 String instanceId,
+                                 StringRedisTemplate redisTemplate,
+                                 MeterRegistry meterRegistry) {
+        this.name = name;
+        this.delegate = delegate;
+        this.properties = properties;
+        this.instanceId = instanceId;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        queues.computeIfAbsent(channel, ChannelQueue::new).enqueue(new Pending(message, pattern));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public MessageListener getDelegate() {
+        return delegate;
+    }
+
+    public Map<String, ChannelQueue> getQueues() {
+        return queues;
+    }
+
+    void shutdown() {
+        running = false;
+        queues.values().forEach(ChannelQueue::interrupt);
+    }
+
+    private record Pending(Message message, byte[] pattern) {
+    }
+
+    public class ChannelQueue {
+
+        private final String channel;
+
+        private final byte[] spillStream;
+
+        private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        private final BlockingQueue<Pending> spillBuffer;
+
+        /**
+         * Spilled messages not yet delivered, whether still buffered or already in the stream. While
+         * non-zero every new message is spilled too, so the channel stays in order.
+         */
+        private final AtomicLong spillBacklog = new AtomicLong();
+
+        private final Counter dropped;
+
+        private final Counter delayed;
+
+        private final Counter spilled;
+
+        private final List<Thread> workers = new ArrayList<>(2);
+
+        private String lastSpilledId = "0-0";
+
+        ChannelQueue(String channel) {
+            this.channel = channel;
+            this.spillStream = (properties.getSpillStreamPrefix() + instanceId + ":" + name + ":" + channel)
+                    .getBytes(StandardCharsets.UTF_8);
+            this.dropped = meterRegistry.counter("pubsub.dropped", "channel", channel, "listener", name);
+            this.delayed = meterRegistry.counter("pubsub.delayed", "channel", channel, "listener", name);
+            this.spilled = meterRegistry.counter("pubsub.spilled", "channel", channel, "listener", name);
+            Gauge.builder("pubsub.queue.size", queue, BlockingQueue::size)
+                    .tags("channel", channel, "listener", name)
+                    .register(meterRegistry);
+
+            if (properties.getOverflowPolicy() == PubSubProperties.OverflowPolicy.SPILL) {
+                spillBuffer = new ArrayBlockingQueue<>(properties.getSpillBufferCapacity());
+                // spill everything until the spill thread has counted what a previous run left behind
+                spillBacklog.set(1);
+                workers.add(Thread.ofVirtual().name("pubsub-spill-" + channel).start(this::spill));
+            } else {
+                spillBuffer = null;
+            }
+            workers.add(Thread.ofVirtual().name("pubsub-" + channel).start(this::deliver));
+        }
+
+        public int size() {
+            return queue.size();
+        }
+
+        public String getSpillStream() {
+            return new String(spillStream, StandardCharsets.UTF_8);
+        }
+
+        public long getSpillBacklog() {
+            return spillBacklog.get();
+        }
+
+        synchronized void enqueue(Pending pending) {
+            switch (properties.getOverflowPolicy()) {
+                case DROP_OLDEST -> {
+                    while (!queue.offer(pending)) {
+                        if (queue.poll() != null) {
+                            dropped.increment();
+                        }
+                    }
+                }
+                case BLOCK -> {
+                    if (queue.offer(pending)) {
+                        return;
+                    }
+                    delayed.increment();
+                    try {
+                        if (!queue.offer(pending, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                            dropped.increment();
+                        }
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        dropped.increment();
+                    }
+                }
+                case SPILL -> {
+                    if (spillBacklog.get() == 0 && queue.offer(pending)) {
+                        return;
+                    }
+                    spillBacklog.incrementAndGet();
+                    if (!spillBuffer.offer(pending)) {
+                        spillBacklog.decrementAndGet();
+                        dropped.increment();
+                    }
+                }
+            }
+        }
+
+        void interrupt() {
+            workers.forEach(Thread::interrupt);
+        }
+
+        private void deliver() {
+            long pollNanos = properties.getSpillPollInterval().toNanos();
+            while (running) {
+                try {
+                    Pending pending = spillBuffer == null ? queue.take() : queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+                    if (pending != null) {
+                        dispatch(pending);
+                    } else if (spillBacklog.get() > 0) {
+                        replaySpilled();
+                    }
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException exception) {
+                    log.warn("Replaying spilled messages of {} failed", channel, exception);
+                }
+            }
+        }
+
+        private void dispatch(Pending pending) {
+            try {
+                delegate.onMessage(pending.message(), pending.pattern());
+            } catch (RuntimeException exception) {
+                log.warn("Listener failed on {}", channel, exception);
+            }
+        }
+
+        private void replaySpilled() {
+            var range = Range.rightUnbounded(Range.Bound.exclusive(lastSpilledId));
+            List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                    connection.streamCommands().xRange(spillStream, range, Limit.limit().count(properties.getSpillBatchSize())));
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+
+            for (ByteRecord record : records) {
+                Map<byte[], byte[]> fields = record.getValue();
+                byte[] body = null;
+                byte[] pattern = null;
+                for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+                    if (Arrays.equals(BODY, field.getKey())) {
+                        body = field.getValue();
+                    } else if (Arrays.equals(PATTERN, field.getKey())) {
+                        pattern = field.getValue();
+                    }
+                }
+                dispatch(new Pending(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body), pattern));
+                lastSpilledId = record.getId().getValue();
+                spillBacklog.decrementAndGet();
+            }
+
+            RecordId[] ids = records.stream().map(ByteRecord::getId).toArray(RecordId[]::new);
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.streamCommands().xDel(spillStream, ids));
+        }
+
+        private void spill() {
+            try {
+                Long leftover = redisTemplate.execute((RedisCallback<Long>) connection ->
+                        connection.streamCommands().xLen(spillStream));
+                spillBacklog.addAndGet((leftover != null ? leftover : 0) - 1);
+            } catch (RuntimeException exception) {
+                log.warn("Could not count spilled messages of {}", channel, exception);
+                spillBacklog.decrementAndGet();
+            }
+
+            List<Pending> batch = new ArrayList<>(properties.getSpillBatchSize());
+            while (running) {
+                try {
+                    batch.add(spillBuffer.take());
+                    spillBuffer.drainTo(batch, properties.getSpillBatchSize() - 1);
+                    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        for (Pending pending : batch) {
+                            Map<byte[], byte[]> fields = pending.pattern() == null
+                                    ? Map.of(BODY, pending.message().getBody())
+                                    : Map.of(BODY, pending.message().getBody(), PATTERN, pending.pattern());
+                            connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(spillStream));
+                        }
+                        connection.keyCommands().pExpire(spillStream, properties.getSpillRetention().toMillis());
+                        return null;
+                    });
+                    spilled.increment(batch.size());
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException exception) {
+                    log.warn("Failed to spill {} messages of {}", batch.size(), channel, exception);
+                    spillBacklog.addAndGet(-batch.size());
+                    dropped.increment(batch.size());
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Receives {@code customers} on the reactive listener container. Messages are buffered up to
+ * {@code app.pubsub.queue-capacity}, dropping the oldest beyond that, and handed to
+ * {@link CustomerListener} in order on a single virtual thread.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.pubsub", name = "dispatch", havingValue = "reactive")
+public class ReactiveCustomerSubscriber implements SmartLifecycle {
+
+    private static final String CHANNEL = "customers";
+
+    @Autowired
+    @Qualifier("pubSubConnectionFactory")
+    private ReactiveRedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private CustomerListener customerListener;
+
+    @Autowired
+    private PubSubProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ReactiveRedisMessageListenerContainer container;
+
+    private Scheduler worker;
+
+    private Disposable subscription;
+
+    @Override
+    public void start() {
+        Counter dropped = meterRegistry.counter("pubsub.dropped", "channel", CHANNEL,
+                "listener", CustomerListener.class.getSimpleName());
+        container = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        worker = Schedulers.fromExecutorService(
+                Executors.newSingleThreadExecutor(Thread.ofVirtual().name("pubsub-" + CHANNEL).factory()));
+
+        subscription = container
+                .receive(List.of(ChannelTopic.of(CHANNEL)), SerializationPair.byteArray(), SerializationPair.byteArray())
+                .onBackpressureBuffer(properties.getQueueCapacity(), message -> dropped.increment(),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .publishOn(worker)
+                .subscribe(message -> customerListener.onMessage(
+                        new DefaultMessage(message.getChannel(), message.getMessage()), null));
+    }
+
+    @Override
+    public void stop() {
+        subscription.dispose();
+        container.destroy();
+        worker.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+}
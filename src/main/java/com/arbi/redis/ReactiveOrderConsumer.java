@@ -0,0 +1,129 @@
+package com.arbi.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.stream.StreamReceiver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumes the order stream through a {@link StreamReceiver}. XREADGROUP is only issued when there is
+ * demand, and demand is bounded by {@code app.orders.concurrency} records in flight. Processed records
+ * are acknowledged in batches of up to {@code batch-size}, at least every {@code ack-interval}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.orders", name = "listener-mode", havingValue = "reactive")
+public class ReactiveOrderConsumer implements SmartLifecycle {
+
+    @Autowired
+    private ReactiveRedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private CodecHashMapper codecHashMapper;
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderConsumerRegistry consumerRegistry;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private Scheduler workers;
+
+    private Disposable subscription;
+
+    @Override
+    public void start() {
+        // records of a batch are processed in parallel, which would break per-partition ordering
+        Assert.state(!partitions.isPartitioned(), "Partitioned order streams need app.orders.listener-mode=single");
+        try {
+            redisTemplate.opsForStream().createGroup(properties.getStream(), properties.getGroup());
+        } catch (RedisSystemException exception) {
+            // group already exists
+        }
+
+        var options = StreamReceiver.StreamReceiverOptions.builder()
+                .pollTimeout(properties.getPollTimeout())
+                .batchSize(properties.getBatchSize())
+                .hashKeySerializer(SerializationPair.byteArray())
+                .hashValueSerializer(SerializationPair.byteArray())
+                .objectMapper(codecHashMapper)
+                .targetType(Order.class)
+                .onErrorResume(throwable -> {
+                    log.warn(throwable.getMessage());
+                    return Mono.empty();
+                })
+                .build();
+        var receiver = StreamReceiver.create(connectionFactory, options);
+        var offset = StreamOffset.create(properties.getStream(), ReadOffset.lastConsumed());
+
+        workers = Schedulers.fromExecutorService(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-worker-", 0).factory()));
+        subscription = receiver.receive(consumerRegistry.getConsumer(), offset)
+                .flatMap(record -> Mono.fromCallable(() -> {
+                            orderListener.onMessage(record);
+                            return record;
+                        })
+                        .subscribeOn(workers)
+                        .onErrorResume(throwable -> {
+                            log.warn("Order {} failed, left pending", record.getId(), throwable);
+                            return Mono.empty();
+                        }), properties.getConcurrency())
+                .bufferTimeout(properties.getBatchSize(), properties.getAckInterval(), true)
+                .concatMap(records -> Mono.fromRunnable(() -> acknowledge(records)).subscribeOn(workers)
+                        .doOnSuccess(acknowledged -> processed.addAndGet(records.size())))
+                .subscribe(acknowledged -> {
+                }, throwable -> log.warn("Reactive order consumer stopped", throwable));
+    }
+
+    private void acknowledge(List<ObjectRecord<String, Order>> records) {
+        deduplicator.acknowledge(properties.getStream(), properties.getGroup(),
+                records.stream().map(ObjectRecord::getId).toList());
+    }
+
+    @Override
+    public void stop() {
+        subscription.dispose();
+        workers.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+}
@@ -0,0 +1,44 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same API as {@link ProductController} without holding a thread per request. Runs on WebFlux when
+ * {@code spring.main.web-application-type=reactive}, otherwise as async requests on the servlet stack.
+ */
+@RestController
+@RequestMapping("/api/products")
+@ConditionalOnProperty(prefix = "app.products", name = "api", havingValue = "reactive")
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductOperations productOperations;
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Product>> get(@PathVariable String id) {
+        return productOperations.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Product> put(@PathVariable String id, @RequestBody Product product) {
+        product.setId(id);
+        return productOperations.save(product);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String id) {
+        return productOperations.deleteById(id).thenReturn(ResponseEntity.noContent().build());
+    }
+}
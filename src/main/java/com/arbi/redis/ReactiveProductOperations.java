@@ -0,0 +1,179 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.TimeToLive;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisPersistentEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository#findById}, {@code save} and {@code deleteById}.
+ * Reads and writes the same hash, keyspace set, expiry and phantom keys as the repository, so both
+ * modes see each other's data, and keep the {@link ProductIndex} up to date the same way. Entities
+ * the bulk path hands back to the adapter are saved through it on a worker thread.
+ */
+@Component
+public class ReactiveProductOperations {
+
+    private static final String PHANTOM_SUFFIX = ":phantom";
+
+    private static final long PHANTOM_KEY_TTL = 300L;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Object> reactiveBinaryRedisTemplate;
+
+    @Autowired
+    private RedisKeyValueAdapter redisKeyValueAdapter;
+
+    @Autowired
+    private RedisKeyValueTemplate redisKeyValueTemplate;
+
+    @Autowired
+    private ProductIndex productIndex;
+
+    @Autowired
+    private ProductProperties properties;
+
+    public Mono<Product> findById(String id) {
+        var ttlProperty = entity().getExplicitTimeToLiveProperty();
+        TimeUnit ttlUnit = ttlProperty != null ? ttlProperty.getRequiredAnnotation(TimeToLive.class).unit() : null;
+        ByteBuffer key = buffer(objectKey(id));
+
+        return reactiveBinaryRedisTemplate.execute(connection -> {
+            Mono<Map<byte[], byte[]>> hash = connection.hashCommands().hGetAll(key)
+                    .collect(HashMap::new, (map, entry) -> map.put(bytes(entry.getKey()), bytes(entry.getValue())));
+            Mono<Long> ttl = ttlUnit != null ? connection.keyCommands().ttl(key) : Mono.just(-1L);
+
+            return Mono.zip(hash, ttl).flatMap(reply -> {
+                if (reply.getT1().isEmpty()) {
+                    return Mono.empty();
+                }
+                RedisData data = new RedisData(reply.getT1());
+                data.setId(id);
+                data.setKeyspace(keyspace());
+                Product product = redisKeyValueAdapter.getConverter().read(Product.class, data);
+                if (ttlUnit != null) {
+                    long seconds = reply.getT2();
+                    product.setTtl(seconds > 0 ? ttlUnit.convert(seconds, TimeUnit.SECONDS) : seconds);
+                }
+                return Mono.just(product);
+            });
+        }).next();
+    }
+
+    public Mono<Product> save(Product product) {
+        if (product.getId() == null) {
+            return Mono.fromCallable(() -> redisKeyValueTemplate.insert(product))
+                    .doOnNext(saved -> productIndex.update(convert(saved)))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        RedisData data = convert(product);
+        if (!data.getIndexedData().isEmpty() || ProductBulkOperationsImpl.startsExpirationListener(properties, data)) {
+            return Mono.fromCallable(() -> redisKeyValueTemplate.update(product))
+                    .doOnNext(saved -> productIndex.update(data))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        ByteBuffer key = buffer(objectKey(data.getId()));
+        Map<ByteBuffer, ByteBuffer> hash = new HashMap<>();
+        data.getBucket().rawMap().forEach((field, value) -> hash.put(ByteBuffer.wrap(field), ByteBuffer.wrap(value)));
+
+        return reactiveBinaryRedisTemplate.execute(connection -> {
+            // each command is sent once the previous one has replied, so the hash is never deleted after the write
+            List<Mono<?>> commands = new ArrayList<>();
+            commands.add(connection.keyCommands().del(key));
+            commands.add(connection.hashCommands().hMSet(key, hash));
+            commands.add(connection.setCommands().sAdd(buffer(keyspace()), buffer(data.getId())));
+            if (ProductBulkOperationsImpl.expires(data)) {
+                commands.add(connection.keyCommands().expire(key, Duration.ofSeconds(data.getTimeToLive())));
+            }
+            if (properties.keepsShadowCopy()) {
+                ByteBuffer phantomKey = buffer(objectKey(data.getId()) + PHANTOM_SUFFIX);
+                commands.add(connection.keyCommands().del(phantomKey));
+                if (ProductBulkOperationsImpl.expires(data)) {
+                    commands.add(connection.hashCommands().hMSet(phantomKey, hash));
+                    commands.add(connection.keyCommands().expire(phantomKey,
+                            Duration.ofSeconds(data.getTimeToLive() + PHANTOM_KEY_TTL)));
+                }
+            }
+            commands.add(index(connection, productIndex.updateScript(), productIndex.updateArguments(data)));
+            return Flux.concat(commands).then();
+        }).then(Mono.just(product));
+    }
+
+    public Mono<Void> deleteById(String id) {
+        return reactiveBinaryRedisTemplate.execute(connection -> Mono.when(
+                connection.keyCommands().del(buffer(objectKey(id))),
+                connection.setCommands().sRem(buffer(keyspace()), buffer(id)),
+                connection.keyCommands().del(buffer(objectKey(id) + PHANTOM_SUFFIX)),
+                index(connection, productIndex.removeScript(), productIndex.removeArguments(id)))).then();
+    }
+
+    /**
+     * Runs an index script by digest, loading it and retrying once on NOSCRIPT, and checks its reply.
+     */
+    private Mono<Void> index(ReactiveRedisConnection connection, LuaScript script, byte[][] keysAndArgs) {
+        ReactiveScriptingCommands scripting = connection.scriptingCommands();
+        return scripting.<Long>evalSha(script.sha(), ReturnType.INTEGER, 3, buffers(keysAndArgs))
+                .onErrorResume(LuaScriptRegistry::isNoScript, exception -> scripting.scriptLoad(ByteBuffer.wrap(script.source()))
+                        .thenMany(scripting.<Long>evalSha(script.sha(), ReturnType.INTEGER, 3, buffers(keysAndArgs))))
+                .single()
+                .doOnNext(ProductIndex::check)
+                .then();
+    }
+
+    private RedisData convert(Product product) {
+        RedisData data = new RedisData();
+        redisKeyValueAdapter.getConverter().write(product, data);
+        return data;
+    }
+
+    private String keyspace() {
+        return entity().getKeySpace();
+    }
+
+    private RedisPersistentEntity<?> entity() {
+        return redisKeyValueAdapter.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+    }
+
+    private String objectKey(String id) {
+        return keyspace() + ":" + id;
+    }
+
+    private static ByteBuffer buffer(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer[] buffers(byte[][] values) {
+        ByteBuffer[] result = new ByteBuffer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = ByteBuffer.wrap(values[i]);
+        }
+        return result;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+package com.arbi.redis;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+
+/**
+ * Replaces Boot's single connection factory with one factory per connection role, built like Boot
+ * would from {@link RedisConnectionDetails} ({@code spring.data.redis.url}, host and port, sentinel or
+ * cluster) and the {@code spring.data.redis.*} client settings, SSL included:
+ * <ul>
+ *     <li>{@code redisConnectionFactory} (primary) - request-path commands share one multiplexed native
+ *     connection; blocking commands and MULTI/EXEC, which would stall it, are given a dedicated
+ *     connection from the pool sized by {@code app.redis.connections.pool.*}</li>
+ *     <li>{@code pubSubConnectionFactory} - subscriptions, from a pool of their own sized by
+ *     {@code app.redis.connections.pub-sub-pool.*}, so they never take a request-path connection</li>
+ * </ul>
+ */
+@Configuration
+public class RedisConnectionConfig {
+
+    @Bean
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(RedisConnectionDetails connectionDetails,
+                                                           RedisProperties redisProperties,
+                                                           RedisConnectionProperties connectionProperties,
+                                                           ClientResources clientResources,
+                                                           ObjectProvider<SslBundles> sslBundles,
+                                                           ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers,
+                                                           MeterRegistry meterRegistry) {
+        var builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig(connectionProperties.getPool()));
+        var factory = new TimedLettuceConnectionFactory(configuration(connectionDetails, redisProperties),
+                client(builder, connectionDetails, redisProperties, clientResources, sslBundles, customizers), "pooled", meterRegistry);
+        factory.setShareNativeConnection(true);
+        return factory;
+    }
+
+    @Bean
+    public LettuceConnectionFactory pubSubConnectionFactory(RedisConnectionDetails connectionDetails,
+                                                            RedisProperties redisProperties,
+                                                            RedisConnectionProperties connectionProperties,
+                                                            ClientResources clientResources,
+                                                            ObjectProvider<SslBundles> sslBundles,
+                                                            ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers,
+                                                            MeterRegistry meterRegistry) {
+        var builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig(connectionProperties.getPubSubPool()));
+        return new TimedLettuceConnectionFactory(configuration(connectionDetails, redisProperties),
+                client(builder, connectionDetails, redisProperties, clientResources, sslBundles, customizers), "pubsub", meterRegistry);
+    }
+
+    private GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig(RedisConnectionProperties.Pool pool) {
+        var poolConfig = new GenericObjectPoolConfig<StatefulConnection<?, ?>>();
+        poolConfig.setMaxTotal(pool.getMaxActive());
+        poolConfig.setMaxIdle(pool.getMaxIdle());
+        poolConfig.setMinIdle(pool.getMinIdle());
+        poolConfig.setMaxWait(pool.getMaxWait());
+        poolConfig.setJmxEnabled(false);
+        return poolConfig;
+    }
+
+    /**
+     * Sentinel, cluster or standalone, in the order Boot checks them.
+     */
+    private RedisConfiguration configuration(RedisConnectionDetails connectionDetails, RedisProperties redisProperties) {
+        var sentinel = connectionDetails.getSentinel();
+        if (sentinel != null) {
+            var configuration = new RedisSentinelConfiguration();
+            configuration.master(sentinel.getMaster());
+            sentinel.getNodes().forEach(node -> configuration.sentinel(node.host(), node.port()));
+            configuration.setDatabase(sentinel.getDatabase());
+            configuration.setUsername(connectionDetails.getUsername());
+            configuration.setPassword(RedisPassword.of(connectionDetails.getPassword()));
+            configuration.setSentinelUsername(sentinel.getUsername());
+            configuration.setSentinelPassword(RedisPassword.of(sentinel.getPassword()));
+            return configuration;
+        }
+
+        var cluster = connectionDetails.getCluster();
+        if (cluster != null) {
+            var configuration = new RedisClusterConfiguration();
+            cluster.getNodes().forEach(node -> configuration.clusterNode(node.host(), node.port()));
+            if (redisProperties.getCluster() != null && redisProperties.getCluster().getMaxRedirects() != null) {
+                configuration.setMaxRedirects(redisProperties.getCluster().getMaxRedirects());
+            }
+            configuration.setUsername(connectionDetails.getUsername());
+            configuration.setPassword(RedisPassword.of(connectionDetails.getPassword()));
+            return configuration;
+        }
+
+        var standalone = connectionDetails.getStandalone();
+        var configuration = new RedisStandaloneConfiguration(standalone.getHost(), standalone.getPort());
+        configuration.setDatabase(standalone.getDatabase());
+        configuration.setUsername(connectionDetails.getUsername());
+        configuration.setPassword(RedisPassword.of(connectionDetails.getPassword()));
+        return configuration;
+    }
+
+    private LettuceClientConfiguration client(LettuceClientConfigurationBuilder builder,
+                                              RedisConnectionDetails connectionDetails,
+                                              RedisProperties redisProperties,
+                                              ClientResources clientResources,
+                                              ObjectProvider<SslBundles> sslBundles,
+                                              ObjectProvider<LettuceClientConfigurationBuilderCustomizer> customizers) {
+        builder.clientResources(clientResources);
+        if (redisProperties.getTimeout() != null) {
+            builder.commandTimeout(redisProperties.getTimeout());
+        }
+        if (redisProperties.getLettuce().getShutdownTimeout() != null) {
+            builder.shutdownTimeout(redisProperties.getLettuce().getShutdownTimeout());
+        }
+        if (redisProperties.getClientName() != null) {
+            builder.clientName(redisProperties.getClientName());
+        }
+        boolean ssl = isSslEnabled(redisProperties);
+        if (ssl) {
+            builder.useSsl();
+        }
+        builder.clientOptions(clientOptions(connectionDetails, redisProperties, ssl, sslBundles));
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder.build();
+    }
+
+    /**
+     * Cluster options whenever {@link #configuration} connects to a cluster, which like Boot follows the
+     * connection details rather than {@code spring.data.redis.cluster} alone.
+     */
+    private ClientOptions clientOptions(RedisConnectionDetails connectionDetails, RedisProperties redisProperties,
+                                        boolean ssl, ObjectProvider<SslBundles> sslBundles) {
+        ClientOptions.Builder builder;
+        if (connectionDetails.getCluster() != null) {
+            var refresh = redisProperties.getLettuce().getCluster().getRefresh();
+            var refreshOptions = ClusterTopologyRefreshOptions.builder()
+                    .dynamicRefreshSources(refresh.isDynamicRefreshSources());
+            if (refresh.getPeriod() != null) {
+                refreshOptions.enablePeriodicRefresh(refresh.getPeriod());
+            }
+            if (refresh.isAdaptive()) {
+                refreshOptions.enableAllAdaptiveRefreshTriggers();
+            }
+            builder = ClusterClientOptions.builder().topologyRefreshOptions(refreshOptions.build());
+        } else {
+            builder = ClientOptions.builder();
+        }
+
+        var socketOptions = SocketOptions.builder();
+        if (redisProperties.getConnectTimeout() != null) {
+            socketOptions.connectTimeout(redisProperties.getConnectTimeout());
+        }
+        builder.socketOptions(socketOptions.build());
+
+        String bundleName = redisProperties.getSsl().getBundle();
+        if (ssl && bundleName != null) {
+            SslBundle bundle = sslBundles.getObject().getBundle(bundleName);
+            var sslOptions = io.lettuce.core.SslOptions.builder()
+                    .keyManager(bundle.getManagers().getKeyManagerFactory())
+                    .trustManager(bundle.getManagers().getTrustManagerFactory());
+            if (bundle.getOptions().getCiphers() != null) {
+                sslOptions.cipherSuites(bundle.getOptions().getCiphers());
+            }
+            if (bundle.getOptions().getEnabledProtocols() != null) {
+                sslOptions.protocols(bundle.getOptions().getEnabledProtocols());
+            }
+            builder.sslOptions(sslOptions.build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * {@code spring.data.redis.ssl.enabled}, a bundle, or a {@code rediss://} URL.
+     */
+    private static boolean isSslEnabled(RedisProperties redisProperties) {
+        return redisProperties.getSsl().isEnabled()
+                || (redisProperties.getUrl() != null && redisProperties.getUrl().startsWith("rediss://"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.arbi.redis;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the connection roles. Request-path commands share one multiplexed connection; blocking
+ * commands and transactions take one from {@code pool}, and every subscription one from
+ * {@code pub-sub-pool}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.redis.connections")
+public class RedisConnectionProperties {
+
+    /**
+     * Dedicated connections for blocking commands (XREADGROUP with BLOCK) and MULTI/EXEC.
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * Connections of the pub/sub factory. Each listener container holds one for as long as it is
+     * subscribed, so this must cover the blocking and the reactive container.
+     */
+    private Pool pubSubPool = new Pool(4, 4, 0, Duration.ofSeconds(2));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+
+        /**
+         * Must cover every blocking stream reader plus the transactions running at the same time.
+         */
+        private int maxActive = 16;
+
+        private int maxIdle = 16;
+
+        private int minIdle = 2;
+
+        /**
+         * Longest a caller waits for a free connection before failing.
+         */
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,30 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+
+@Configuration
+public class RepositoryConfig {
+
+    /**
+     * Configures the adapter {@code @EnableRedisRepositories} registers from {@code app.products}, before
+     * it starts any keyspace event listener, so the adapter and the pipelined writes share one setting.
+     */
+    @Bean
+    public static BeanPostProcessor redisKeyValueAdapterConfigurer(ObjectProvider<ProductProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RedisKeyValueAdapter adapter) {
+                    ProductProperties productProperties = properties.getObject();
+                    adapter.setEnableKeyspaceEvents(productProperties.getKeyspaceEvents());
+                    adapter.setShadowCopy(productProperties.getShadowCopy());
+                }
+                return bean;
+            }
+        };
+    }
+}
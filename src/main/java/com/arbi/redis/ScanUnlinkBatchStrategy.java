@@ -0,0 +1,67 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Clears cache keys with incremental SCAN and UNLINK instead of KEYS and DEL. Each round trip handles
+ * at most one batch, and UNLINK frees the values on a Redis background thread, so neither blocks
+ * other clients for long on a large keyspace.
+ */
+public class ScanUnlinkBatchStrategy implements BatchStrategy {
+
+    private final int batchSize;
+
+    public ScanUnlinkBatchStrategy(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public long cleanCache(RedisConnection connection, String name, byte[] pattern) {
+        AtomicLong unlinked = new AtomicLong();
+        clean(connection, pattern, new AtomicLong(), unlinked, () -> true);
+        return unlinked.get();
+    }
+
+    /**
+     * Unlinks every key matching {@code pattern}, batch by batch. {@code proceed} runs after every full
+     * batch; returning {@code false} stops before the next one.
+     *
+     * @return whether the scan completed
+     */
+    public boolean clean(RedisConnection connection, byte[] pattern, AtomicLong scanned, AtomicLong unlinked,
+                         BooleanSupplier proceed) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                scanned.incrementAndGet();
+                if (batch.size() == batchSize) {
+                    unlink(connection, batch, unlinked);
+                    if (!proceed.getAsBoolean()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        unlink(connection, batch, unlinked);
+        return true;
+    }
+
+    private static void unlink(RedisConnection connection, List<byte[]> batch, AtomicLong unlinked) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Long removed = connection.keyCommands().unlink(batch.toArray(byte[][]::new));
+        unlinked.addAndGet(removed != null ? removed : 0);
+        batch.clear();
+    }
+}
@@ -0,0 +1,7 @@
+package com.arbi.redis;
+
+/**
+ * A seller found by {@link SellerLocator}, with its distance in kilometres from the search point.
+ */
+public record Seller(String name, double longitude, double latitude, double distance) {
+}
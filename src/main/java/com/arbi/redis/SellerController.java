@@ -0,0 +1,53 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/sellers")
+public class SellerController {
+
+    @Autowired
+    private SellerLocator sellerLocator;
+
+    /**
+     * Sellers within {@code radius} kilometres.
+     */
+    @GetMapping("/radius")
+    public List<Seller> radius(@RequestParam double longitude, @RequestParam double latitude,
+                               @RequestParam double radius, @RequestParam(defaultValue = "50") int limit) {
+        return sellerLocator.radius(longitude, latitude, radius, limit);
+    }
+
+    /**
+     * Sellers in a box of {@code width} by {@code height} kilometres.
+     */
+    @GetMapping("/box")
+    public List<Seller> box(@RequestParam double longitude, @RequestParam double latitude,
+                            @RequestParam double width, @RequestParam double height,
+                            @RequestParam(defaultValue = "50") int limit) {
+        return sellerLocator.box(longitude, latitude, width, height, limit);
+    }
+
+    @PutMapping("/{name}")
+    public ResponseEntity<Void> put(@PathVariable String name, @RequestParam double longitude,
+                                    @RequestParam double latitude) {
+        sellerLocator.put(name, longitude, latitude);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> delete(@PathVariable String name) {
+        sellerLocator.remove(name);
+        return ResponseEntity.noContent().build();
+    }
+}
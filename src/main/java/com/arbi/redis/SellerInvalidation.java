@@ -0,0 +1,8 @@
+package com.arbi.redis;
+
+/**
+ * Positions a seller left or moved to, as {@code longitude, latitude} pairs, broadcast so every node
+ * drops the cached cells around them.
+ */
+public record SellerInvalidation(String origin, double[] positions) {
+}
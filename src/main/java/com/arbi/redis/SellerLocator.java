@@ -0,0 +1,330 @@
+package com.arbi.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation;
+import org.springframework.data.redis.connection.RedisGeoCommands.GeoSearchCommandArgs;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.domain.geo.BoundingBox;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Radius and box searches over the {@code app.sellers.key} GEO set. Nearby users ask nearly the same
+ * question, so a search is answered from a cached superset: every seller within the rounded-up radius
+ * of anywhere in the geohash cell of the search point, fetched once per cell and radius bucket. The
+ * superset is then refined locally to the exact point, with Redis's own distance formula.
+ *
+ * <p>Adding, moving or removing a seller drops the cached cells that could contain its old or new
+ * position, here and, through {@code app.sellers.invalidation-channel}, on the other nodes.
+ */
+@Component
+@Slf4j
+public class SellerLocator implements MessageListener {
+
+    /**
+     * Earth radius Redis uses for GEO distances, in kilometres.
+     */
+    private static final double EARTH_RADIUS = 6372.797560856;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private SellerLocatorProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    private Cache<CellQuery, List<Seller>> cells;
+
+    /**
+     * Bumped by every invalidation before it drops cells, so a search that raced with one takes back
+     * what it cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder redisSearches = new LongAdder();
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private Counter bypasses;
+
+    /**
+     * A cached cell: its geohash, the radius bucket, and the centre and reach of the superset query.
+     */
+    record CellQuery(String cell, double bucket, double longitude, double latitude, double reach) {
+    }
+
+    @PostConstruct
+    public void init() {
+        cells = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumCachedSellers())
+                .weigher((CellQuery query, List<Seller> sellers) -> Math.max(1, sellers.size()))
+                .expireAfterWrite(properties.getCellTtl())
+                .build();
+        hits = searches("hit");
+        misses = searches("miss");
+        bypasses = searches("bypass");
+    }
+
+    /**
+     * Sellers within {@code radius} kilometres of the point, nearest first.
+     */
+    public List<Seller> radius(double longitude, double latitude, double radius, int limit) {
+        return search(longitude, latitude, radius, limit,
+                seller -> seller.distance() <= radius,
+                () -> redisTemplate.opsForGeo().search(properties.getKey(),
+                        GeoReference.fromCoordinate(longitude, latitude),
+                        new Distance(radius, Metrics.KILOMETERS), args().limit(limit)));
+    }
+
+    /**
+     * Sellers in the box of {@code width} by {@code height} kilometres centred on the point, nearest first.
+     */
+    public List<Seller> box(double longitude, double latitude, double width, double height, int limit) {
+        return search(longitude, latitude, Math.hypot(width, height) / 2, limit,
+                seller -> inBox(seller, longitude, latitude, width, height),
+                () -> redisTemplate.opsForGeo().search(properties.getKey(),
+                        GeoReference.fromCoordinate(longitude, latitude),
+                        new BoundingBox(width, height, Metrics.KILOMETERS), args().limit(limit)));
+    }
+
+    /**
+     * Adds or moves a seller and drops the cells around both its old and new position.
+     */
+    public void put(String name, double longitude, double latitude) {
+        byte[] key = bytes(properties.getKey());
+        byte[] member = bytes(name);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.geoCommands().geoPos(key, member);
+            connection.geoCommands().geoAdd(key, new Point(longitude, latitude), member);
+            return null;
+        });
+        List<Point> previous = positions(results.get(0));
+        previous.add(new Point(longitude, latitude));
+        invalidate(previous);
+    }
+
+    public void remove(String name) {
+        byte[] key = bytes(properties.getKey());
+        byte[] member = bytes(name);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.geoCommands().geoPos(key, member);
+            connection.zSetCommands().zRem(key, member);
+            return null;
+        });
+        invalidate(positions(results.get(0)));
+    }
+
+    /**
+     * Searches that went to Redis, cache misses and bypasses together.
+     */
+    public long getRedisSearches() {
+        return redisSearches.sum();
+    }
+
+    public long getCachedCells() {
+        return cells.estimatedSize();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            var invalidation = objectMapper.readValue(message.getBody(), SellerInvalidation.class);
+            if (!instanceId.get().equals(invalidation.origin())) {
+                invalidateLocal(invalidation.positions());
+            }
+        } catch (IOException exception) {
+            log.warn("Invalid seller invalidation message", exception);
+        }
+    }
+
+    private List<Seller> search(double longitude, double latitude, double radius, int limit,
+                                Predicate<Seller> filter,
+                                Supplier<GeoResults<GeoLocation<String>>> direct) {
+        Double bucket = bucket(radius);
+        if (!properties.isCacheEnabled() || bucket == null) {
+            bypasses.increment();
+            redisSearches.increment();
+            return toSellers(direct.get());
+        }
+
+        CellQuery query = cellQuery(longitude, latitude, bucket);
+        List<Seller> superset = cells.getIfPresent(query);
+        if (superset != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            redisSearches.increment();
+            long before = generation.get();
+            superset = toSellers(redisTemplate.opsForGeo().search(properties.getKey(),
+                    GeoReference.fromCoordinate(query.longitude(), query.latitude()),
+                    new Distance(query.reach(), Metrics.KILOMETERS), args()));
+            // put before checking: an invalidation after the check drops the cell itself
+            cells.put(query, superset);
+            if (generation.get() != before) {
+                cells.asMap().remove(query, superset);
+            }
+        }
+
+        List<Seller> result = new ArrayList<>();
+        for (Seller seller : superset) {
+            var refined = new Seller(seller.name(), seller.longitude(), seller.latitude(),
+                    distance(longitude, latitude, seller.longitude(), seller.latitude()));
+            if (filter.test(refined)) {
+                result.add(refined);
+            }
+        }
+        result.sort(Comparator.comparingDouble(Seller::distance));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    private Double bucket(double radius) {
+        for (double bucket : properties.getRadiusBuckets()) {
+            if (radius <= bucket) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The cell of the point, queried from its centre with the bucket plus the farthest corner, so the
+     * result covers the bucket around any point in the cell.
+     */
+    private CellQuery cellQuery(double longitude, double latitude, double bucket) {
+        String cell = Geohash.encode(longitude, latitude, properties.getCellPrecision());
+        double[] bounds = Geohash.bounds(cell);
+        double centreLon = (bounds[0] + bounds[2]) / 2;
+        double centreLat = (bounds[1] + bounds[3]) / 2;
+        double corner = Math.max(
+                distance(centreLon, centreLat, bounds[0], bounds[1]),
+                distance(centreLon, centreLat, bounds[0], bounds[3]));
+        return new CellQuery(cell, bucket, centreLon, centreLat, bucket + corner);
+    }
+
+    private void invalidate(List<Point> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        double[] flat = new double[positions.size() * 2];
+        for (int i = 0; i < positions.size(); i++) {
+            flat[i * 2] = positions.get(i).getX();
+            flat[i * 2 + 1] = positions.get(i).getY();
+        }
+        invalidateLocal(flat);
+        try {
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(),
+                    objectMapper.writeValueAsString(new SellerInvalidation(instanceId.get(), flat)));
+        } catch (JsonProcessingException exception) {
+            log.warn("Cannot publish seller invalidation", exception);
+        }
+    }
+
+    private void invalidateLocal(double[] positions) {
+        generation.incrementAndGet();
+        cells.asMap().keySet().removeIf(query -> {
+            for (int i = 0; i < positions.length; i += 2) {
+                if (distance(query.longitude(), query.latitude(), positions[i], positions[i + 1]) <= query.reach()) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Point> positions(Object geoPos) {
+        List<Point> positions = new ArrayList<>();
+        if (geoPos instanceof List<?> list) {
+            for (Object position : (List<Object>) list) {
+                if (position instanceof Point point) {
+                    positions.add(point);
+                }
+            }
+        }
+        return positions;
+    }
+
+    private static List<Seller> toSellers(GeoResults<GeoLocation<String>> results) {
+        List<Seller> sellers = new ArrayList<>();
+        if (results == null) {
+            return sellers;
+        }
+        results.forEach(result -> {
+            GeoLocation<String> location = result.getContent();
+            sellers.add(new Seller(location.getName(), location.getPoint().getX(), location.getPoint().getY(),
+                    result.getDistance().getValue()));
+        });
+        return sellers;
+    }
+
+    /**
+     * Redis's box test: latitude distance against half the height, longitude distance, measured along
+     * the seller's latitude, against half the width.
+     */
+    private static boolean inBox(Seller seller, double longitude, double latitude, double width, double height) {
+        return distance(seller.longitude(), seller.latitude(), seller.longitude(), latitude) <= height / 2
+                && distance(seller.longitude(), seller.latitude(), longitude, seller.latitude()) <= width / 2;
+    }
+
+    /**
+     * Haversine distance in kilometres, as GEODIST and GEOSEARCH compute it.
+     */
+    static double distance(double lon1, double lat1, double lon2, double lat2) {
+        double lat1r = Math.toRadians(lat1);
+        double lat2r = Math.toRadians(lat2);
+        double u = Math.sin((lat2r - lat1r) / 2);
+        double v = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = u * u + Math.cos(lat1r) * Math.cos(lat2r) * v * v;
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(a));
+    }
+
+    private static GeoSearchCommandArgs args() {
+        return GeoSearchCommandArgs.newGeoSearchArgs().includeCoordinates().includeDistance().sortAscending();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Counter searches(String result) {
+        return Counter.builder("sellers.searches")
+                .description("Seller searches, by whether a cached cell answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
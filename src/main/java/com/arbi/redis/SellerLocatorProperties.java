@@ -0,0 +1,41 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.sellers")
+public class SellerLocatorProperties {
+
+    /**
+     * GEO set holding the seller positions.
+     */
+    private String key = "sellers";
+
+    private boolean cacheEnabled = true;
+
+    /**
+     * Geohash length of a cached cell. Searches from anywhere in a cell share its entry.
+     */
+    private int cellPrecision = 6;
+
+    /**
+     * Radii, in kilometres, a search is rounded up to. Larger searches go to Redis directly.
+     */
+    private List<Double> radiusBuckets = List.of(0.5, 1.0, 2.0, 5.0, 10.0);
+
+    /**
+     * Sellers held across all cached cells. A cell weighs as many sellers as its superset, at least one.
+     */
+    private long maximumCachedSellers = 1_000_000L;
+
+    /**
+     * Lifetime of a cached cell, bounding how long a missed invalidation can leave it stale.
+     */
+    private Duration cellTtl = Duration.ofSeconds(30);
+
+    private String invalidationChannel = "sellers:invalidations";
+}
@@ -1,71 +1,68 @@
 package com.arbi.redis;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
-import org.springframework.data.redis.connection.stream.ReadOffset;
-import org.springframework.data.redis.connection.stream.StreamOffset;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
-import org.springframework.data.redis.stream.Subscription;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.time.Duration;
+import java.util.List;
 
 @SpringBootApplication
-@Slf4j
+@ConfigurationPropertiesScan
 @EnableScheduling
 @EnableRedisRepositories
 @EnableCaching
 public class SpringRedisApplication {
 
-	@Autowired
-	private StringRedisTemplate redisTemplate;
-
 	@Bean
-	public RedisMessageListenerContainer messageListenerContainer(RedisConnectionFactory connectionFactory,
-																  CustomerListener customerListener) {
+	public RedisMessageListenerContainer messageListenerContainer(@Qualifier("pubSubConnectionFactory") RedisConnectionFactory connectionFactory,
+																  CustomerListener customerListener,
+																  NearCacheInvalidationListener nearCacheInvalidationListener,
+																  ProductIndexExpiryListener productIndexExpiryListener,
+																  SellerLocator sellerLocator,
+																  SellerLocatorProperties sellerLocatorProperties,
+																  NearCacheProperties nearCacheProperties,
+																  PubSubDispatcher pubSubDispatcher,
+																  PubSubProperties pubSubProperties) {
 		var container = new RedisMessageListenerContainer();
 		container.setConnectionFactory(connectionFactory);
-		container.addMessageListener(customerListener, new ChannelTopic("customers"));
-		return container;
-	}
-
-	@Bean
-	public Subscription orderSubscription(StreamMessageListenerContainer<String, ObjectRecord<String, Order>> orderContainer,
-										  OrderListener orderListener) {
-		try {
-			redisTemplate.opsForStream().createGroup("orders", "my-group");
-		} catch (Throwable throwable) {
+		pubSubDispatcher.configure(container);
+		if (pubSubProperties.getDispatch() != PubSubProperties.Dispatch.REACTIVE) {
+			container.addMessageListener(pubSubDispatcher.wrap(customerListener), new ChannelTopic("customers"));
 		}
-
-		var offset = StreamOffset.create("orders", ReadOffset.lastConsumed());
-		var consumer = Consumer.from("my-group", "consumer-1");
-		var readRequest = StreamMessageListenerContainer.StreamReadRequest
-				.builder(offset)
-				.consumer(consumer)
-				.autoAcknowledge(true)
-				.cancelOnError(throwable -> false)
-				.errorHandler(throwable -> log.warn(throwable.getMessage()))
-				.build();
-
-		return orderContainer.register(readRequest, orderListener);
+		container.addMessageListener(pubSubDispatcher.wrap(nearCacheInvalidationListener), List.of(
+				new ChannelTopic(nearCacheProperties.getInvalidationChannel()),
+				new PatternTopic(NearCacheInvalidationListener.EXPIRED_PATTERN)));
+		container.addMessageListener(pubSubDispatcher.wrap(productIndexExpiryListener),
+				new PatternTopic(NearCacheInvalidationListener.EXPIRED_PATTERN));
+		container.addMessageListener(pubSubDispatcher.wrap(sellerLocator),
+				new ChannelTopic(sellerLocatorProperties.getInvalidationChannel()));
+		return container;
 	}
 
 	@Bean(destroyMethod = "stop", initMethod = "start")
-	public StreamMessageListenerContainer<String, ObjectRecord<String, Order>> orderContainer(RedisConnectionFactory connectionFactory) {
+	@ConditionalOnProperty(prefix = "app.orders", name = "listener-mode", havingValue = "single", matchIfMissing = true)
+	public StreamMessageListenerContainer<String, ObjectRecord<String, Order>> orderContainer(RedisConnectionFactory connectionFactory,
+																							   OrderStreamProperties properties,
+																							   CodecHashMapper codecHashMapper) {
 		var options = StreamMessageListenerContainer.StreamMessageListenerContainerOptions
 				.builder()
-				.pollTimeout(Duration.ofSeconds(5))
+				.pollTimeout(properties.getPollTimeout())
+				.hashKeySerializer(RedisSerializer.byteArray())
+				.hashValueSerializer(RedisSerializer.byteArray())
+				.objectMapper(codecHashMapper)
 				.targetType(Order.class)
 				.build();
 
@@ -0,0 +1,48 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates a {@link StampedeProtectedCache} for every cache listed in {@code app.cache.stampede.cache-names}
+ * and a plain {@link RedisCache} for the rest.
+ */
+public class StampedeCacheManager extends RedisCacheManager {
+
+    private final StampedeProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final InstanceId instanceId;
+
+    private final ExecutorService refresher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cache-refresh-", 0).factory());
+
+    public StampedeCacheManager(RedisCacheWriter cacheWriter,
+                                RedisCacheConfiguration defaultCacheConfiguration,
+                                Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                StampedeProperties properties,
+                                StringRedisTemplate redisTemplate,
+                                InstanceId instanceId) {
+        super(cacheWriter, defaultCacheConfiguration, true, initialCacheConfigurations);
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.instanceId = instanceId;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        if (!properties.isEnabled() || !properties.getCacheNames().contains(name)) {
+            return super.createRedisCache(name, cacheConfiguration);
+        }
+        return new StampedeProtectedCache(name, getCacheWriter(), cacheConfiguration, properties,
+                redisTemplate, instanceId.get(), refresher);
+    }
+}
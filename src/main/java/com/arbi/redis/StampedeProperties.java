@@ -0,0 +1,40 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache.stampede")
+public class StampedeProperties {
+
+    private boolean enabled = true;
+
+    private Set<String> cacheNames = new HashSet<>(Set.of("products"));
+
+    /**
+     * How long one node may hold the cross-node load lease for a key. Nodes that lose the lease
+     * poll for the value up to this long before loading it themselves.
+     */
+    private Duration leaseTime = Duration.ofSeconds(5);
+
+    private Duration leasePollInterval = Duration.ofMillis(50);
+
+    /**
+     * Namespace of the load leases, kept apart from every cache's key prefix.
+     */
+    private String leaseKeyPrefix = "cache:lease:";
+
+    /**
+     * Eagerness of the probabilistic early refresh; higher refreshes earlier, 0 disables it.
+     */
+    private double beta = 1.0;
+
+    /**
+     * Number of keys per cache whose last load time is remembered for early refresh.
+     */
+    private long maximumSize = 10_000L;
+}
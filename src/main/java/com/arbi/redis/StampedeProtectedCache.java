@@ -0,0 +1,261 @@
+package com.arbi.redis;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RedisCache} whose {@code get(key, valueLoader)} - used by {@code @Cacheable(sync = true)} -
+ * runs at most one loader per key in this JVM and, through a short lease
+ * {@code <lease-key-prefix><name>::<key>} in Redis, usually one across all nodes. Leases live outside
+ * the cache's own keys, so clearing the cache leaves them alone and no entry can collide with one.
+ * Hits may also trigger a background reload shortly before the entry expires (XFetch), so hot keys
+ * are refreshed without any caller blocking on a miss.
+ * Loaded values are stored through the cache decorating this one, if any, so a {@link NearCache}
+ * in front updates its L1 and tells the other nodes.
+ */
+@Slf4j
+public class StampedeProtectedCache extends RedisCache {
+
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StampedeProperties properties;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String owner;
+
+    private final Executor refresher;
+
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, Load> loads;
+
+    private volatile Cache store = this;
+
+    /**
+     * When this node last loaded a key: the entry deadline and how long the loader took, both in nanos.
+     */
+    record Load(long expiresAt, long took) {
+    }
+
+    public StampedeProtectedCache(String name,
+                                  RedisCacheWriter cacheWriter,
+                                  RedisCacheConfiguration cacheConfiguration,
+                                  StampedeProperties properties,
+                                  StringRedisTemplate redisTemplate,
+                                  String owner,
+                                  Executor refresher) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.owner = owner;
+        this.refresher = refresher;
+        this.loads = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .build();
+    }
+
+    /**
+     * Stores loaded and refreshed values through {@code decorator} instead of writing to Redis directly.
+     */
+    public void storeThrough(Cache decorator) {
+        this.store = decorator;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = createCacheKey(key);
+        ValueWrapper hit = get(key);
+        if (hit != null) {
+            if (shouldRefreshEarly(cacheKey)) {
+                refreshAsync(key, cacheKey, valueLoader);
+            }
+            return (T) hit.get();
+        }
+        return (T) load(key, cacheKey, valueLoader);
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        loads.invalidate(createCacheKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        loads.invalidate(createCacheKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        loads.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = super.invalidate();
+        loads.invalidateAll();
+        return present;
+    }
+
+    private Object load(Object key, String cacheKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            Object value = loadWithLease(key, cacheKey, valueLoader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException exception) {
+            mine.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            loading.remove(cacheKey, mine);
+        }
+    }
+
+    private Object loadWithLease(Object key, String cacheKey, Callable<?> valueLoader) {
+        String lease = leaseKey(key);
+        boolean acquired = Boolean.TRUE.equals(
+                redisTemplate.opsForValue().setIfAbsent(lease, owner, properties.getLeaseTime()));
+        if (!acquired) {
+            Object stored = awaitOtherNode(key);
+            if (stored != null) {
+                return fromStoreValue(stored);
+            }
+            log.debug("Lease {} not released in {}, loading anyway", lease, properties.getLeaseTime());
+        }
+
+        try {
+            return loadAndStore(key, cacheKey, valueLoader);
+        } finally {
+            if (acquired) {
+                redisTemplate.execute(RELEASE_LEASE, List.of(lease), owner);
+            }
+        }
+    }
+
+    private Object awaitOtherNode(Object key) {
+        long deadline = System.nanoTime() + properties.getLeaseTime().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(properties.getLeasePollInterval());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object stored = lookup(key);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        return null;
+    }
+
+    private Object loadAndStore(Object key, String cacheKey, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception exception) {
+            throw new ValueRetrievalException(key, valueLoader, exception);
+        }
+        long took = System.nanoTime() - start;
+
+        store.put(key, value);
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        if (ttl.isPositive()) {
+            loads.put(cacheKey, new Load(System.nanoTime() + ttl.toNanos(), took));
+        }
+        return value;
+    }
+
+    /**
+     * XFetch: refresh when {@code now - took * beta * ln(random)} passes the deadline, which gets
+     * more likely the closer the entry is to expiring and the slower its loader is.
+     */
+    private boolean shouldRefreshEarly(String cacheKey) {
+        if (properties.getBeta() <= 0) {
+            return false;
+        }
+        Load load = loads.getIfPresent(cacheKey);
+        if (load == null) {
+            return false;
+        }
+        double gap = -load.took() * properties.getBeta() * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + gap >= load.expiresAt();
+    }
+
+    private void refreshAsync(Object key, String cacheKey, Callable<?> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        if (loading.putIfAbsent(cacheKey, mine) != null) {
+            return;
+        }
+
+        refresher.execute(() -> {
+            String lease = leaseKey(key);
+            boolean acquired = false;
+            try {
+                acquired = Boolean.TRUE.equals(
+                        redisTemplate.opsForValue().setIfAbsent(lease, owner, properties.getLeaseTime()));
+                if (acquired) {
+                    mine.complete(loadAndStore(key, cacheKey, valueLoader));
+                } else {
+                    // another node is already refreshing this key; callers waiting on this refresh
+                    // still need a value if the entry expired meanwhile
+                    ValueWrapper current = get(key);
+                    mine.complete(current != null ? current.get() : loadAndStore(key, cacheKey, valueLoader));
+                }
+            } catch (RuntimeException exception) {
+                log.warn("Early refresh of {} failed", cacheKey, exception);
+                mine.completeExceptionally(exception);
+            } finally {
+                loading.remove(cacheKey, mine);
+                if (acquired) {
+                    redisTemplate.execute(RELEASE_LEASE, List.of(lease), owner);
+                }
+            }
+        });
+    }
+
+    private String leaseKey(Object key) {
+        return properties.getLeaseKeyPrefix() + getName() + "::" + convertKey(key);
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+}
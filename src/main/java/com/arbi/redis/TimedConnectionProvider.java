@@ -0,0 +1,60 @@
+package com.arbi.redis;
+
+import io.lettuce.core.api.StatefulConnection;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionProvider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long callers wait for a connection from the wrapped provider. For a pooled provider that
+ * is the borrow wait; for an unpooled one it is the connect time.
+ */
+public class TimedConnectionProvider implements LettuceConnectionProvider, DisposableBean {
+
+    private final LettuceConnectionProvider delegate;
+
+    private final Timer timer;
+
+    public TimedConnectionProvider(LettuceConnectionProvider delegate, Timer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public <T extends StatefulConnection<?, ?>> T getConnection(Class<T> connectionType) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getConnection(connectionType);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public <T extends StatefulConnection<?, ?>> CompletionStage<T> getConnectionAsync(Class<T> connectionType) {
+        long start = System.nanoTime();
+        return delegate.getConnectionAsync(connectionType).whenComplete((connection, error) ->
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void release(StatefulConnection<?, ?> connection) {
+        delegate.release(connection);
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseAsync(StatefulConnection<?, ?> connection) {
+        return delegate.releaseAsync(connection);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+}
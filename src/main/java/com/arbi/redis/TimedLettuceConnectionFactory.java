@@ -0,0 +1,36 @@
+package com.arbi.redis;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.codec.RedisCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionProvider;
+
+/**
+ * {@link LettuceConnectionFactory} whose connection providers publish their acquisition time as
+ * {@code redis.connection.acquire}, tagged by the role of the factory.
+ */
+public class TimedLettuceConnectionFactory extends LettuceConnectionFactory {
+
+    private final Timer acquire;
+
+    public TimedLettuceConnectionFactory(RedisConfiguration redisConfiguration,
+                                         LettuceClientConfiguration clientConfiguration,
+                                         String role,
+                                         MeterRegistry meterRegistry) {
+        super(redisConfiguration, clientConfiguration);
+        this.acquire = Timer.builder("redis.connection.acquire")
+                .description("Time spent waiting for a Redis connection")
+                .tag("role", role)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected LettuceConnectionProvider doCreateConnectionProvider(AbstractRedisClient client, RedisCodec<?, ?> codec) {
+        return new TimedConnectionProvider(super.doCreateConnectionProvider(client, codec), acquire);
+    }
+}
@@ -0,0 +1,144 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records the Redis round trip of every cache operation as {@code cache.redis.latency}, tagged by
+ * cache and operation. Timers are resolved once per cache so the hot path only reads a clock.
+ */
+public class TimedRedisCacheWriter implements RedisCacheWriter {
+
+    enum Operation {
+        GET, PUT, PUT_IF_ABSENT, REMOVE, CLEAN
+    }
+
+    private final RedisCacheWriter delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public TimedRedisCacheWriter(RedisCacheWriter delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return record(name, Operation.GET, () -> delegate.get(name, key));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return record(name, Operation.GET, () -> delegate.get(name, key, ttl));
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key) {
+        return recordAsync(name, Operation.GET, () -> delegate.retrieve(name, key));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return recordAsync(name, Operation.GET, () -> delegate.retrieve(name, key, ttl));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        record(name, Operation.PUT, () -> {
+            delegate.put(name, key, value, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return recordAsync(name, Operation.PUT, () -> delegate.store(name, key, value, ttl));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        return record(name, Operation.PUT_IF_ABSENT, () -> delegate.putIfAbsent(name, key, value, ttl));
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        record(name, Operation.REMOVE, () -> {
+            delegate.remove(name, key);
+            return null;
+        });
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        record(name, Operation.CLEAN, () -> {
+            delegate.clean(name, pattern);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new TimedRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector), meterRegistry);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    private <T> T record(String name, Operation operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            timer(name, operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> CompletableFuture<T> recordAsync(String name, Operation operation,
+                                                     Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        return call.get().whenComplete((result, error) ->
+                timer(name, operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private Timer timer(String name, Operation operation) {
+        return timers.computeIfAbsent(name, this::createTimers)[operation.ordinal()];
+    }
+
+    private Timer[] createTimers(String name) {
+        Operation[] operations = Operation.values();
+        Timer[] result = new Timer[operations.length];
+        for (Operation operation : operations) {
+            result[operation.ordinal()] = Timer.builder("cache.redis.latency")
+                    .description("Redis round trip of cache operations")
+                    .tag("cache", name)
+                    .tag("operation", operation.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        return result;
+    }
+}
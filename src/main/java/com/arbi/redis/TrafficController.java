@@ -0,0 +1,48 @@
+package com.arbi.redis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/traffic")
+public class TrafficController {
+
+    @Autowired
+    private TrafficCounter trafficCounter;
+
+    @PostMapping("/{counter}")
+    public ResponseEntity<Void> record(@PathVariable String counter, @RequestParam String visitor) {
+        trafficCounter.record(counter, visitor);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Unique visitors across {@code counters} in the buckets of {@code interval} between {@code from}
+     * and {@code to}, which default to now. Ranges over more than {@code app.traffic.max-buckets} bucket
+     * keys are a bad request.
+     */
+    @GetMapping
+    public Map<String, Long> count(@RequestParam List<String> counters,
+                                   @RequestParam(defaultValue = "HOUR") TrafficCounter.Interval interval,
+                                   @RequestParam(required = false) Instant from,
+                                   @RequestParam(required = false) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        try {
+            return Map.of("unique", trafficCounter.count(counters, interval, from != null ? from : end, end));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(), exception);
+        }
+    }
+}
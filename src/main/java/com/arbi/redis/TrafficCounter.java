@@ -0,0 +1,264 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unique visitor counts per minute, hour and day. Instead of a PFADD per page view, visitors are added
+ * to HyperLogLog registers in process, one set per counter and interval bucket, and every
+ * {@code app.traffic.flush-interval} each set is sent as a dense HLL string and PFMERGEd into its
+ * bucket key, {@code <prefix>:<counter>:<interval>:<bucket start millis>}. Since the registers use
+ * Redis's hash and precision, the merged keys count exactly as if every visitor had been PFADDed.
+ *
+ * <p>Counts are answered with PFCOUNT over the merged keys and lag by up to one flush interval.
+ */
+@Component
+@Slf4j
+public class TrafficCounter implements SchedulingConfigurer {
+
+    /**
+     * KEYS: bucket key, scratch key in the same slot. ARGV: dense registers, lifetime in millis.
+     */
+    private static final String MERGE = """
+            redis.call('set', KEYS[2], ARGV[1])
+            redis.call('pfmerge', KEYS[1], KEYS[1], KEYS[2])
+            redis.call('del', KEYS[2])
+            redis.call('pexpire', KEYS[1], ARGV[2])
+            return 1
+            """;
+
+    public enum Interval {
+        MINUTE(Duration.ofMinutes(1)),
+        HOUR(Duration.ofHours(1)),
+        DAY(Duration.ofDays(1));
+
+        private final long millis;
+
+        Interval(Duration size) {
+            this.millis = size.toMillis();
+        }
+
+        public long start(long timestamp) {
+            return timestamp - Math.floorMod(timestamp, millis);
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private record Bucket(String counter, Interval interval, long start) {
+    }
+
+    /**
+     * Registers of one bucket. Once flushed they are out of the map, and a writer that still holds
+     * them starts a new set.
+     */
+    private static final class Registers {
+
+        private final HyperLogLog hll;
+
+        private boolean flushed;
+
+        private Registers(HyperLogLog hll) {
+            this.hll = hll;
+        }
+    }
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private LuaScriptRegistry scriptRegistry;
+
+    @Autowired
+    private TrafficProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private InstanceId instanceId;
+
+    private final Map<Bucket, Registers> pending = new ConcurrentHashMap<>();
+
+    private LuaScript merge;
+
+    private Counter merged;
+
+    private Counter overflow;
+
+    @PostConstruct
+    public void init() {
+        merge = scriptRegistry.register("traffic-merge", MERGE);
+        merged = Counter.builder("traffic.merges")
+                .description("Register sets merged into Redis")
+                .register(meterRegistry);
+        overflow = Counter.builder("traffic.overflow")
+                .description("Visitors sent with PFADD because the register sets were exhausted")
+                .register(meterRegistry);
+        Gauge.builder("traffic.register-sets", pending, Map::size)
+                .description("Register sets waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::flush, properties.getFlushInterval());
+    }
+
+    public void record(String counter, String visitor) {
+        record(counter, visitor, System.currentTimeMillis());
+    }
+
+    /**
+     * Counts {@code visitor} in the buckets containing {@code timestamp}, in epoch millis.
+     */
+    public void record(String counter, String visitor, long timestamp) {
+        byte[] element = visitor.getBytes(StandardCharsets.UTF_8);
+        for (Interval interval : Interval.values()) {
+            add(new Bucket(counter, interval, interval.start(timestamp)), element);
+        }
+    }
+
+    /**
+     * Unique visitors of {@code counter} in the buckets of {@code interval} from the one containing
+     * {@code from} up to the one containing {@code to}.
+     */
+    public long count(String counter, Interval interval, Instant from, Instant to) {
+        return count(List.of(counter), interval, from, to);
+    }
+
+    /**
+     * Unique visitors across all {@code counters}, a visitor seen by several counted once.
+     *
+     * @throws IllegalArgumentException if the range would take more than {@code app.traffic.max-buckets}
+     *                                  bucket keys; ask for a coarser interval instead
+     */
+    public long count(Collection<String> counters, Interval interval, Instant from, Instant to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from " + from + " is after to " + to);
+        }
+        long first = interval.start(from.toEpochMilli());
+        long buckets = (to.toEpochMilli() - first) / interval.getMillis() + 1;
+        if (buckets * counters.size() > properties.getMaxBuckets()) {
+            throw new IllegalArgumentException(counters.size() + " counters over " + buckets + " "
+                    + interval.name().toLowerCase(Locale.ROOT) + " buckets exceed "
+                    + properties.getMaxBuckets() + " bucket keys");
+        }
+        List<String> keys = new ArrayList<>();
+        for (String counter : counters) {
+            for (long start = first; start <= to.toEpochMilli(); start += interval.getMillis()) {
+                keys.add(key(new Bucket(counter, interval, start)));
+            }
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long size = redisTemplate.opsForHyperLogLog().size(keys.toArray(String[]::new));
+        return size != null ? size : 0;
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        int failed = 0;
+        RuntimeException failure = null;
+        for (Bucket bucket : List.copyOf(pending.keySet())) {
+            Registers registers = pending.remove(bucket);
+            if (registers == null) {
+                continue;
+            }
+            byte[] dense;
+            synchronized (registers) {
+                registers.flushed = true;
+                dense = registers.hll.toDense();
+            }
+            String key = key(bucket);
+            try {
+                scriptRegistry.execute(merge, ReturnType.INTEGER, 2, bytes(key),
+                        bytes("{" + key + "}:merge:" + instanceId.get()), dense,
+                        bytes(String.valueOf(properties.getRetention().get(bucket.interval()).toMillis())));
+                merged.increment();
+            } catch (RuntimeException exception) {
+                restore(bucket, registers.hll);
+                failed++;
+                failure = exception;
+            }
+        }
+        if (failure != null) {
+            log.warn("Failed to merge {} traffic register sets, keeping them for the next flush", failed, failure);
+        }
+    }
+
+    private void add(Bucket bucket, byte[] element) {
+        while (true) {
+            Registers registers = pending.get(bucket);
+            if (registers == null) {
+                if (pending.size() >= properties.getMaxRegisterSets()) {
+                    addDirect(bucket, element);
+                    return;
+                }
+                registers = pending.computeIfAbsent(bucket, ignored -> new Registers(new HyperLogLog()));
+            }
+            synchronized (registers) {
+                if (!registers.flushed) {
+                    registers.hll.add(element);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void addDirect(Bucket bucket, byte[] element) {
+        overflow.increment();
+        byte[] key = bytes(key(bucket));
+        long retention = properties.getRetention().get(bucket.interval()).toMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hyperLogLogCommands().pfAdd(key, element);
+            connection.keyCommands().pExpire(key, retention);
+            return null;
+        });
+    }
+
+    private void restore(Bucket bucket, HyperLogLog hll) {
+        pending.compute(bucket, (ignored, current) -> {
+            if (current == null) {
+                return new Registers(hll);
+            }
+            synchronized (current) {
+                current.hll.merge(hll);
+            }
+            return current;
+        });
+    }
+
+    private String key(Bucket bucket) {
+        return properties.getKeyPrefix() + ":" + bucket.counter() + ":"
+                + bucket.interval().name().toLowerCase(Locale.ROOT) + ":" + bucket.start();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,40 @@
+package com.arbi.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.traffic")
+public class TrafficProperties {
+
+    private String keyPrefix = "traffics";
+
+    /**
+     * How often local registers are merged into Redis. Counts lag by up to this long.
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * Register sets, one per counter and interval bucket, held between flushes; 16 KiB each. Visitors
+     * for a bucket beyond it are sent straight to Redis with PFADD.
+     */
+    private int maxRegisterSets = 1_000;
+
+    /**
+     * Bucket keys, counters times buckets, a single count may PFCOUNT. Longer ranges need a coarser
+     * interval.
+     */
+    private int maxBuckets = 2_000;
+
+    /**
+     * Lifetime of a bucket key, by interval.
+     */
+    private Map<TrafficCounter.Interval, Duration> retention = new EnumMap<>(Map.of(
+            TrafficCounter.Interval.MINUTE, Duration.ofHours(2),
+            TrafficCounter.Interval.HOUR, Duration.ofDays(3),
+            TrafficCounter.Interval.DAY, Duration.ofDays(90)));
+}
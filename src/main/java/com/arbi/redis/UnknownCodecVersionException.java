@@ -0,0 +1,14 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * A value written by a codec this node does not know yet, a newer version or a new type id, as seen
+ * by older nodes during a rolling upgrade.
+ */
+public class UnknownCodecVersionException extends SerializationException {
+
+    public UnknownCodecVersionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,83 @@
+package com.arbi.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compresses values of at least {@code threshold} bytes behind a six-byte header: a magic byte, the
+ * algorithm id and the uncompressed length. Values without the header are returned as they are, so
+ * compressed and plain values are read alike whichever algorithm, or none, is configured now. Plain
+ * values must not start with {@link #MAGIC}; codec and JDK serialized values never do.
+ */
+public class ValueCompressor {
+
+    public static final byte MAGIC = (byte) 0xC5;
+
+    private static final int HEADER_LENGTH = 6;
+
+    private final CompressionAlgorithm algorithm;
+
+    private final int threshold;
+
+    private final int level;
+
+    /**
+     * @param algorithm {@code null} to only decompress
+     */
+    public ValueCompressor(CompressionAlgorithm algorithm, int threshold, int level) {
+        this.algorithm = algorithm;
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    public static ValueCompressor of(CompressionProperties properties) {
+        return new ValueCompressor(properties.isEnabled() ? properties.getAlgorithm() : null,
+                (int) properties.getThreshold().toBytes(), properties.getDeflateLevel());
+    }
+
+    public static boolean isCompressed(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    /**
+     * The compressed form, or {@code value} itself when it is below the threshold or does not shrink.
+     */
+    public byte[] compress(byte[] value) {
+        if (algorithm == null || value == null || value.length < threshold) {
+            return value;
+        }
+
+        byte[] compressed = algorithm.compress(value, level);
+        if (compressed.length + HEADER_LENGTH >= value.length) {
+            return value;
+        }
+        byte[] result = new byte[HEADER_LENGTH + compressed.length];
+        result[0] = MAGIC;
+        result[1] = algorithm.id();
+        result[2] = (byte) (value.length >>> 24);
+        result[3] = (byte) (value.length >>> 16);
+        result[4] = (byte) (value.length >>> 8);
+        result[5] = (byte) value.length;
+        System.arraycopy(compressed, 0, result, HEADER_LENGTH, compressed.length);
+        return result;
+    }
+
+    public byte[] decompress(byte[] value) {
+        if (!isCompressed(value)) {
+            return value;
+        }
+
+        CompressionAlgorithm compressedWith = CompressionAlgorithm.of(value[1]);
+        int length = (value[2] & 0xFF) << 24 | (value[3] & 0xFF) << 16 | (value[4] & 0xFF) << 8 | (value[5] & 0xFF);
+        // a corrupt header must not allocate more than the payload can decode to
+        if (length < 0 || length > compressedWith.maxDecompressedLength(value.length - HEADER_LENGTH)) {
+            throw new SerializationException("Invalid uncompressed length " + length);
+        }
+        byte[] result = new byte[length];
+        try {
+            compressedWith.decompress(value, HEADER_LENGTH, result);
+        } catch (IndexOutOfBoundsException exception) {
+            throw new SerializationException("Corrupt compressed value", exception);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package com.arbi.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.hotkeys.sample-rate=1",
+        "app.hotkeys.promote-threshold=50",
+        "app.hotkeys.copy-ttl=10s"
+})
+@DirtiesContext
+public class HotKeyDetectorTest {
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private HotKeyEndpoint hotKeyEndpoint;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Test
+    void promoteHotProduct() {
+        productRepository.save(Product.builder().id("H-1").name("Hot").price(1_000L).build());
+        productRepository.save(Product.builder().id("H-2").name("Cold").price(1_000L).build());
+        productRepository.findById("H-2");
+        for (int i = 0; i < 60; i++) {
+            productRepository.findById("H-1");
+        }
+
+        assertTrue(hotKeyDetector.isPromoted("products:H-1"));
+        assertFalse(hotKeyDetector.isPromoted("products:H-2"));
+        assertEquals("products:H-1", hotKeyDetector.top().get(0).key());
+        assertTrue(hotKeyDetector.top().get(0).estimate() >= 60);
+        assertNotNull(hotKeyEndpoint.hotKeys().get("top"));
+
+        // served from the local copy while Redis changes underneath
+        redisTemplate.opsForHash().put("products:H-1", "name", "Changed");
+        assertEquals("Hot", productRepository.findById("H-1").orElseThrow().getName());
+
+        // every read gets its own instance of the copy
+        productRepository.findById("H-1").orElseThrow().setName("Mutated");
+        assertEquals("Hot", productRepository.findById("H-1").orElseThrow().getName());
+
+        // a write through this node drops the copy
+        productRepository.save(Product.builder().id("H-1").name("Saved").price(1_000L).build());
+        assertEquals("Saved", productRepository.findById("H-1").orElseThrow().getName());
+
+        productRepository.deleteById("H-1");
+        assertTrue(productRepository.findById("H-1").isEmpty());
+        productRepository.deleteById("H-2");
+    }
+
+    @Test
+    void noCopyBeneathNearCache() {
+        var writer = new HotKeyCacheWriter(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                hotKeyDetector, Set.of("products"));
+        byte[] near = "cache:products::H-3".getBytes(StandardCharsets.UTF_8);
+        byte[] plain = "cache:plain::H-3".getBytes(StandardCharsets.UTF_8);
+        writer.put("products", near, "v1".getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(1));
+        writer.put("plain", plain, "v1".getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(1));
+        for (int i = 0; i < 60; i++) {
+            writer.get("products", near);
+            writer.get("plain", plain);
+        }
+        assertTrue(hotKeyDetector.isPromoted("cache:products::H-3"));
+        assertTrue(hotKeyDetector.isPromoted("cache:plain::H-3"));
+
+        redisTemplate.opsForValue().set("cache:products::H-3", "v2");
+        redisTemplate.opsForValue().set("cache:plain::H-3", "v2");
+        // the near cache is invalidated on its own, so nothing beneath it may answer with the old value
+        assertEquals("v2", new String(writer.get("products", near), StandardCharsets.UTF_8));
+        assertEquals("v1", new String(writer.get("plain", plain), StandardCharsets.UTF_8));
+
+        writer.remove("products", near);
+        writer.remove("plain", plain);
+    }
+}
@@ -0,0 +1,103 @@
+package com.arbi.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.stream=orders:aggregation-test",
+        "app.orders.aggregation.key-prefix=orders:agg-test",
+        "app.orders.aggregation.flush-interval=100ms",
+        "app.orders.aggregation.claim-min-idle=200ms"
+})
+@DirtiesContext
+public class OrderAggregatorTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private OrderAggregator orderAggregator;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @MockBean
+    private OrderPublisher orderPublisher;
+
+    @Test
+    void aggregateOnce() throws InterruptedException {
+        String stream = properties.getStream();
+        String group = properties.getAggregation().getGroup();
+        redisTemplate.delete(redisTemplate.keys("orders:agg-test:*"));
+
+        RecordId last = null;
+        for (long amount = 100; amount <= 500; amount += 100) {
+            last = orderStreamOperations.add(ObjectRecord.create(stream, new Order(UUID.randomUUID().toString(), amount)));
+        }
+        awaitCount(Instant.ofEpochMilli(last.getTimestamp()), 5);
+
+        // another aggregator reads two orders and dies before flushing them
+        orderAggregator.stop();
+        for (long amount : new long[]{50, 900}) {
+            last = orderStreamOperations.add(ObjectRecord.create(stream, new Order(UUID.randomUUID().toString(), amount)));
+        }
+        redisTemplate.opsForStream().read(Consumer.from(group, "crashed-aggregator"),
+                StreamOffset.create(stream, ReadOffset.lastConsumed()));
+        assertEquals(2, redisTemplate.opsForStream().pending(stream, group).getTotalPendingMessages());
+        orderAggregator.start();
+
+        Instant at = Instant.ofEpochMilli(last.getTimestamp());
+        awaitCount(at, 7);
+        var window = orderAggregator.query("last-hour", at, 1).get(0);
+        assertEquals(2450, window.sum());
+        assertEquals(50, window.min());
+        assertEquals(900, window.max());
+        assertEquals(0, redisTemplate.opsForStream().pending(stream, group).getTotalPendingMessages());
+
+        long flushed = orderAggregator.getFlushed();
+        orderAggregator.stop();
+        orderAggregator.start();
+        last = orderStreamOperations.add(ObjectRecord.create(stream, new Order(UUID.randomUUID().toString(), 1L)));
+        awaitCount(Instant.ofEpochMilli(last.getTimestamp()), 8);
+        assertEquals(flushed + 1, orderAggregator.getFlushed());
+
+        // pane keys hash like their stream, so a flush never spans slots
+        assertTrue(redisTemplate.keys("orders:agg-test:*").stream()
+                .allMatch(key -> key.startsWith("orders:agg-test:{orders:aggregation-test}:")));
+        redisTemplate.delete(redisTemplate.keys("orders:agg-test:*"));
+    }
+
+    @Test
+    void hashTag() {
+        assertEquals("orders", OrderAggregator.hashTag("orders"));
+        assertEquals("3", OrderAggregator.hashTag("orders:{3}"));
+        assertEquals("a{}b", OrderAggregator.hashTag("a{}b"));
+        assertEquals("x", OrderAggregator.hashTag("{x}:{y}"));
+    }
+
+    private void awaitCount(Instant at, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (orderAggregator.query("last-hour", at, 1).get(0).count() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(count, orderAggregator.query("last-hour", at, 1).get(0).count());
+    }
+}
@@ -0,0 +1,95 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.stream=orders-archive-test",
+        "app.orders.publisher.trim-strategy=none",
+        "app.orders.aggregation.enabled=false",
+        "app.orders.archive.enabled=true",
+        "app.orders.archive.directory=target/orders-archive-test",
+        "app.orders.archive.segment-size=64KB",
+        "app.orders.archive.index-interval=16",
+        "app.orders.archive.retain=0s",
+        "app.orders.archive.interval=1h"
+})
+public class OrderArchiverTest {
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Test
+    void archiveTrimAndReplay() throws Exception {
+        RecordId first = null;
+        RecordId last = null;
+        String lastOrder = null;
+        for (int i = 0; i < 2_000; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), 1000L + i);
+            last = orderStreamOperations.add(ObjectRecord.create("orders-archive-test", order));
+            first = first != null ? first : last;
+            lastOrder = order.getId();
+        }
+        Thread.sleep(10);
+
+        assertTrue(orderArchiver.archive() >= 2_000);
+        assertEquals(0, redisTemplate.opsForStream().size("orders-archive-test"));
+        try (var files = Files.list(Path.of("target/orders-archive-test/orders-archive-test"))) {
+            assertTrue(files.filter(file -> file.toString().endsWith(".seg")).count() > 1);
+        }
+
+        var replayed = meterRegistry.get("orders.handled").tag("source", "replayed").counter();
+        double before = replayed.count();
+        assertEquals(2_000, orderArchiver.replay(first, last));
+        assertEquals(2_000, replayed.count() - before);
+        assertTrue(deduplicator.isDuplicate(lastOrder, false));
+
+        // replay processes orders again even though they are known duplicates by now
+        assertEquals(2_000, orderArchiver.replay(first, last));
+        assertEquals(4_000, replayed.count() - before);
+
+        // a range starting inside a segment is found through the sparse index
+        assertEquals(1, orderArchiver.replay(last, last));
+        assertEquals(4_001, replayed.count() - before);
+    }
+
+    @Test
+    void archiveOnlyUnderLease() throws Exception {
+        orderStreamOperations.add(ObjectRecord.create("orders-archive-test", new Order(UUID.randomUUID().toString(), 1L)));
+        Thread.sleep(10);
+        redisTemplate.opsForValue().set("orders-archive-test:archiver", "other-instance", Duration.ofMinutes(1));
+        try {
+            assertEquals(0, orderArchiver.archive());
+            assertEquals(1, redisTemplate.opsForStream().size("orders-archive-test"));
+        } finally {
+            redisTemplate.delete("orders-archive-test:archiver");
+        }
+        assertTrue(orderArchiver.archive() >= 1);
+        assertEquals(0, redisTemplate.opsForStream().size("orders-archive-test"));
+    }
+}
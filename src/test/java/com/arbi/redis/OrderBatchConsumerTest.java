@@ -0,0 +1,44 @@
+package com.arbi.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.listener-mode=batch",
+        "app.orders.stream=orders-batch-test",
+        "app.orders.poll-timeout=1s",
+        "app.orders.publisher.sample-orders=false"
+})
+public class OrderBatchConsumerTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private OrderBatchConsumer orderBatchConsumer;
+
+    @Test
+    void consumeInBatches() throws InterruptedException {
+        long before = orderBatchConsumer.getProcessed();
+        for (int i = 0; i < 500; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), 1000L);
+            redisTemplate.opsForStream().add(ObjectRecord.create("orders-batch-test", order));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (orderBatchConsumer.getProcessed() - before < 500 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(500, orderBatchConsumer.getProcessed() - before);
+        assertTrue(orderBatchConsumer.getBatches() < 500);
+        assertEquals(0, redisTemplate.opsForStream().pending("orders-batch-test", "my-group").getTotalPendingMessages());
+    }
+}
@@ -0,0 +1,55 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderDeduplicatorTest {
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void skipProcessed() {
+        String id = UUID.randomUUID().toString();
+        assertFalse(deduplicator.isDuplicate(id, false));
+
+        deduplicator.markProcessed(id);
+        assertTrue(deduplicator.isDuplicate(id, false));
+        assertTrue(redisTemplate.hasKey("orders:seen:" + id));
+
+        // a claimed record is checked against Redis even though this filter never saw it
+        deduplicator.rotate();
+        deduplicator.rotate();
+        assertTrue(deduplicator.isDuplicate(id, true));
+        assertFalse(deduplicator.isDuplicate(UUID.randomUUID().toString(), true));
+        assertTrue(meterRegistry.get("orders.dedup.checks").tag("result", "duplicate").counter().count() >= 2);
+
+        redisTemplate.delete("orders:seen:" + id);
+    }
+
+    @Test
+    void falsePositiveRate() {
+        var filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("in-" + i));
+
+        assertTrue(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("in-" + i)));
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("out-" + i)).count();
+        assertTrue(falsePositives < 2_000, () -> falsePositives + " false positives");
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+}
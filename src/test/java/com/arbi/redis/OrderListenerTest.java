@@ -0,0 +1,79 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class OrderListenerTest {
+
+    private static final String STREAM = "orders-redelivery-test";
+
+    private static final String GROUP = "orders-redelivery-test";
+
+    @Autowired
+    private OrderListener orderListener;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(STREAM);
+    }
+
+    @Test
+    void redelivered() {
+        String id = UUID.randomUUID().toString();
+        orderStreamOperations.add(ObjectRecord.create(STREAM, new Order(id, 1000L)));
+        redisTemplate.opsForStream().createGroup(STREAM, ReadOffset.from("0"), GROUP);
+        List<ObjectRecord<String, Order>> records = orderStreamOperations.read(Order.class,
+                Consumer.from(GROUP, "consumer"), StreamReadOptions.empty().count(1),
+                StreamOffset.create(STREAM, ReadOffset.lastConsumed()));
+        ObjectRecord<String, Order> record = records.get(0);
+
+        orderListener.onMessage(record);
+
+        // processed but not yet acknowledged, as if the consumer died before its XACK: the marker is
+        // already there for the record another consumer reclaims
+        assertTrue(redisTemplate.hasKey("orders:seen:" + id));
+        assertEquals(1, redisTemplate.opsForStream().pending(STREAM, GROUP).getTotalPendingMessages());
+
+        double before = duplicates();
+        orderListener.onRedelivery(record);
+        orderListener.onMessage(record);
+        assertEquals(before + 2, duplicates());
+
+        deduplicator.acknowledge(STREAM, GROUP, List.of(record.getId()));
+        assertEquals(0, redisTemplate.opsForStream().pending(STREAM, GROUP).getTotalPendingMessages());
+
+        redisTemplate.delete("orders:seen:" + id);
+    }
+
+    private double duplicates() {
+        return meterRegistry.get("orders.dedup.checks").tag("result", "duplicate").counter().count();
+    }
+}
@@ -0,0 +1,133 @@
+package com.arbi.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.stream=orders-reclaim-test",
+        "app.orders.dead-letter-stream=orders-reclaim-test:dlq",
+        "app.orders.reclaim-min-idle=0s",
+        "app.orders.reclaim-interval=1h",
+        "app.orders.max-deliveries=2",
+        "app.orders.aggregation.enabled=false"
+})
+@DirtiesContext
+public class OrderReclaimerTest {
+
+    private static final String STREAM = "orders-reclaim-test";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private OrderReclaimer orderReclaimer;
+
+    @Autowired
+    private OrderStreamProperties properties;
+
+    @Autowired
+    private OrderDeduplicator deduplicator;
+
+    @Autowired
+    private StreamMessageListenerContainer<String, ObjectRecord<String, Order>> orderContainer;
+
+    @BeforeEach
+    void setUp() {
+        // records must stay pending for the dead consumer instead of being read by this instance
+        orderContainer.stop();
+        redisTemplate.delete(List.of(STREAM, STREAM + ":dlq"));
+        try {
+            redisTemplate.opsForStream().createGroup(STREAM, properties.getGroup());
+        } catch (RedisSystemException exception) {
+            // group already exists
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(List.of(STREAM, STREAM + ":dlq"));
+    }
+
+    @Test
+    void reclaim() {
+        List<String> ids = publishAndAbandon(3);
+
+        orderReclaimer.reclaim();
+
+        assertEquals(0, redisTemplate.opsForStream().pending(STREAM, properties.getGroup()).getTotalPendingMessages());
+        assertEquals(0, redisTemplate.opsForStream().size(STREAM + ":dlq"));
+        ids.forEach(id -> assertTrue(deduplicator.isDuplicate(id, true), id + " was not processed"));
+    }
+
+    @Test
+    void deadLetter() {
+        List<String> ids = publishAndAbandon(3);
+        // a second failed delivery, so reclaiming is the third
+        var pending = redisTemplate.opsForStream().pending(STREAM, properties.getGroup(),
+                Range.unbounded(), 10);
+        redisTemplate.opsForStream().claim(STREAM, properties.getGroup(), "another-dead-consumer", Duration.ZERO,
+                pending.stream().map(PendingMessage::getId).toArray(RecordId[]::new));
+
+        orderReclaimer.reclaim();
+
+        assertEquals(0, redisTemplate.opsForStream().pending(STREAM, properties.getGroup()).getTotalPendingMessages());
+        assertEquals(3, redisTemplate.opsForStream().size(STREAM + ":dlq"));
+        ids.forEach(id -> assertFalse(deduplicator.isDuplicate(id, true), id + " was processed"));
+    }
+
+    @Test
+    void liveConsumerKeepsEntries() {
+        publishAndAbandon(3);
+        // dead-consumer is still working on its batch and beating
+        redisTemplate.opsForZSet().add(STREAM + ":consumers", "dead-consumer", System.currentTimeMillis());
+        try {
+            orderReclaimer.reclaim();
+
+            var pending = redisTemplate.opsForStream().pending(STREAM, Consumer.from(properties.getGroup(), "dead-consumer"));
+            assertEquals(3, pending.size());
+        } finally {
+            redisTemplate.opsForZSet().remove(STREAM + ":consumers", "dead-consumer");
+        }
+
+        orderReclaimer.reclaim();
+        assertEquals(0, redisTemplate.opsForStream().pending(STREAM, properties.getGroup()).getTotalPendingMessages());
+    }
+
+    private List<String> publishAndAbandon(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            orderStreamOperations.add(ObjectRecord.create(STREAM, new Order(id, 1000L)));
+        }
+        redisTemplate.opsForStream().read(Consumer.from(properties.getGroup(), "dead-consumer"),
+                StreamOffset.create(STREAM, ReadOffset.lastConsumed()));
+        assertEquals(count, redisTemplate.opsForStream().pending(STREAM, properties.getGroup()).getTotalPendingMessages());
+        return ids;
+    }
+}
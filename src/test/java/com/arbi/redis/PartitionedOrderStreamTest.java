@@ -0,0 +1,89 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.stream=orders-partition-test",
+        "app.orders.poll-timeout=1s",
+        "app.orders.partitioning.partitions=4",
+        "app.orders.partitioning.legacy=drain",
+        "app.orders.aggregation.enabled=false"
+})
+public class PartitionedOrderStreamTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private BufferedOrderPublisher bufferedOrderPublisher;
+
+    @Autowired
+    private OrderPartitions partitions;
+
+    @Autowired
+    private OrderPartitionAssigner assigner;
+
+    @Autowired
+    private OrderStreamSubscriber subscriber;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void routeAndConsume() throws Exception {
+        redisTemplate.delete("orders-partition-test:consumers");
+        assigner.rebalance();
+        assertEquals(Set.copyOf(partitions.streams()), assigner.getOwnedStreams());
+        assertEquals(5, subscriber.getSubscriptions().size());
+        assertTrue(redisTemplate.hasKey("orders-partition-test:{2}:owner"));
+
+        var processing = meterRegistry.get("orders.processing").timer();
+        long before = processing.count();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), 1000L);
+            orders.add(order);
+            bufferedOrderPublisher.publish(order).get();
+        }
+        Order first = orders.get(0);
+        assertEquals(partitions.stream(Math.floorMod(first.getId().hashCode(), 4)), partitions.streamFor(first));
+        assertEquals(0, redisTemplate.opsForStream().size("orders-partition-test"));
+
+        long total = 0;
+        for (int partition = 0; partition < 4; partition++) {
+            total += redisTemplate.opsForStream().size(partitions.stream(partition));
+        }
+        assertTrue(total >= 100);
+
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (processing.count() - before < 100 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(processing.count() - before >= 100);
+
+        // another instance joins: only the partitions it wins move, after this one releases them
+        redisTemplate.opsForZSet().add("orders-partition-test:consumers", "consumer-joined", System.currentTimeMillis());
+        assigner.rebalance();
+        for (String stream : partitions.streams()) {
+            boolean mine = assigner.getOwnedStreams().contains(stream);
+            String winner = OrderPartitionAssigner.owner(stream, new TreeSet<>(
+                    redisTemplate.opsForZSet().range("orders-partition-test:consumers", 0, -1)));
+            assertEquals(!"consumer-joined".equals(winner), mine, stream);
+        }
+        redisTemplate.opsForZSet().remove("orders-partition-test:consumers", "consumer-joined");
+        assigner.rebalance();
+        assertEquals(Set.copyOf(partitions.streams()), assigner.getOwnedStreams());
+    }
+}
@@ -0,0 +1,126 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class QueuedMessageListenerTest {
+
+    private static final String INSTANCE = UUID.randomUUID().toString();
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void dropOldest() throws InterruptedException {
+        var meterRegistry = new SimpleMeterRegistry();
+        var received = new CopyOnWriteArrayList<String>();
+        var release = new CountDownLatch(1);
+        var listener = new QueuedMessageListener("drop", slowListener(received, release),
+                properties(PubSubProperties.OverflowPolicy.DROP_OLDEST), INSTANCE, redisTemplate, meterRegistry);
+
+        publish(listener, "drop-test", 100);
+        release.countDown();
+        awaitLast(received, "99");
+
+        assertTrue(received.size() < 100);
+        assertEquals(100 - received.size(), (long) meterRegistry.get("pubsub.dropped").counter().count());
+        listener.shutdown();
+    }
+
+    @Test
+    void spillKeepsOrder() throws InterruptedException {
+        String channel = "spill-test-" + UUID.randomUUID();
+        var meterRegistry = new SimpleMeterRegistry();
+        var received = new CopyOnWriteArrayList<String>();
+        var release = new CountDownLatch(1);
+        var listener = new QueuedMessageListener("spill", slowListener(received, release),
+                properties(PubSubProperties.OverflowPolicy.SPILL), INSTANCE, redisTemplate, meterRegistry);
+
+        publish(listener, channel, 100);
+        release.countDown();
+        awaitLast(received, "99");
+
+        assertEquals(IntStream.range(0, 100).mapToObj(String::valueOf).toList(), received);
+        assertTrue(meterRegistry.get("pubsub.spilled").counter().count() > 0);
+        assertEquals(0, meterRegistry.get("pubsub.dropped").counter().count());
+        listener.shutdown();
+        redisTemplate.delete(listener.getQueues().get(channel).getSpillStream());
+    }
+
+    @Test
+    void spillPerListener() throws InterruptedException {
+        String channel = "spill-shared-test-" + UUID.randomUUID();
+        var properties = properties(PubSubProperties.OverflowPolicy.SPILL);
+        var receivedA = new CopyOnWriteArrayList<String>();
+        var receivedB = new CopyOnWriteArrayList<String>();
+        var release = new CountDownLatch(1);
+        var a = new QueuedMessageListener("a", slowListener(receivedA, release), properties, INSTANCE,
+                redisTemplate, new SimpleMeterRegistry());
+        var b = new QueuedMessageListener("b", slowListener(receivedB, release), properties, INSTANCE,
+                redisTemplate, new SimpleMeterRegistry());
+
+        publish(a, channel, 100);
+        publish(b, channel, 100);
+        release.countDown();
+        awaitLast(receivedA, "99");
+        awaitLast(receivedB, "99");
+
+        var expected = IntStream.range(0, 100).mapToObj(String::valueOf).toList();
+        assertEquals(expected, receivedA);
+        assertEquals(expected, receivedB);
+        String spillA = a.getQueues().get(channel).getSpillStream();
+        String spillB = b.getQueues().get(channel).getSpillStream();
+        assertNotEquals(spillA, spillB);
+        assertTrue(spillA.contains(INSTANCE));
+        a.shutdown();
+        b.shutdown();
+        redisTemplate.delete(List.of(spillA, spillB));
+    }
+
+    private PubSubProperties properties(PubSubProperties.OverflowPolicy policy) {
+        var properties = new PubSubProperties();
+        properties.setQueueCapacity(10);
+        properties.setOverflowPolicy(policy);
+        return properties;
+    }
+
+    private MessageListener slowListener(List<String> received, CountDownLatch release) {
+        return (message, pattern) -> {
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(new String(message.getBody()));
+        };
+    }
+
+    private void publish(QueuedMessageListener listener, String channel, int count) {
+        for (int i = 0; i < count; i++) {
+            listener.onMessage(new DefaultMessage(channel.getBytes(), String.valueOf(i).getBytes()), null);
+        }
+    }
+
+    private void awaitLast(List<String> received, String last) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while ((received.isEmpty() || !last.equals(received.get(received.size() - 1)))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(last, received.get(received.size() - 1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.arbi.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.orders.listener-mode=reactive",
+        "app.orders.stream=orders-reactive-test",
+        "app.orders.poll-timeout=1s",
+        "app.pubsub.dispatch=reactive",
+        "app.products.api=reactive"
+})
+public class ReactiveModeTest {
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ReactiveOrderConsumer reactiveOrderConsumer;
+
+    @Autowired
+    private ReactiveProductOperations productOperations;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void consumeOrders() throws InterruptedException {
+        long before = reactiveOrderConsumer.getProcessed();
+        for (int i = 0; i < 500; i++) {
+            Order order = new Order(UUID.randomUUID().toString(), 1000L);
+            redisTemplate.opsForStream().add(ObjectRecord.create("orders-reactive-test", order));
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (reactiveOrderConsumer.getProcessed() - before < 500 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertTrue(reactiveOrderConsumer.getProcessed() - before >= 500);
+        assertEquals(0, redisTemplate.opsForStream().pending("orders-reactive-test", "my-group").getTotalPendingMessages());
+    }
+
+    @Test
+    void products() {
+        Product product = Product.builder().id("R-1").name("Reactive").price(5_000L).ttl(60L).build();
+        productOperations.save(product).block();
+
+        Product stored = productRepository.findById("R-1").get();
+        assertEquals("Reactive", stored.getName());
+        assertTrue(stored.getTtl() > 0);
+
+        productRepository.save(Product.builder().id("R-2").name("Blocking").price(1_000L).build());
+        assertEquals(productRepository.findById("R-2").get(), productOperations.findById("R-2").block());
+
+        productOperations.deleteById("R-1").block();
+        productOperations.deleteById("R-2").block();
+        assertNull(productOperations.findById("R-1").block());
+        assertFalse(productRepository.existsById("R-2"));
+    }
+
+    @Test
+    void customers() throws InterruptedException {
+        var received = meterRegistry.counter("pubsub.received", "channel", "customers");
+        double before = received.count();
+        Thread.sleep(500);
+        redisTemplate.convertAndSend("customers", "Reactive");
+
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (received.count() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(received.count() > before);
+    }
+}
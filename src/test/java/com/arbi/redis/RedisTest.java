@@ -1,20 +1,31 @@
 package com.arbi.redis;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.geo.*;
 import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.connection.*;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.stream.*;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.data.redis.support.collections.*;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
@@ -35,6 +46,42 @@ public class RedisTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private StreamOperations<String, byte[], byte[]> orderStreamOperations;
+
+    @Autowired
+    private BufferedOrderPublisher bufferedOrderPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderStreamMetrics orderStreamMetrics;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private LettuceConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private LettuceConnectionFactory pubSubConnectionFactory;
+
+    @Autowired
+    private CacheRegionManager cacheRegionManager;
+
+    @Autowired
+    private LuaScriptRegistry scriptRegistry;
+
+    @Autowired
+    private SellerLocator sellerLocator;
+
+    @Autowired
+    private TrafficCounter trafficCounter;
+
     @Test
     void testRedisTemplate() {
         assertNotNull(redisTemplate);
@@ -382,4 +429,430 @@ public class RedisTest {
         Product product2 = productService.getProduct("P003");
         assertEquals(product, product2);
     }
+
+    @Test
+    void nearCache() {
+        assertInstanceOf(NearCache.class, cacheManager.getCache("products"));
+
+        Product product = productService.getProduct("P004");
+        redisTemplate.delete("cache:products::P004");
+
+        Product product2 = productService.getProduct("P004");
+        assertEquals(product, product2);
+        assertFalse(redisTemplate.hasKey("cache:products::P004"));
+
+        productService.remove("P004");
+        assertNull(cacheManager.getCache("products").get("P004"));
+    }
+
+    @Test
+    void nearCacheExpiry() throws InterruptedException {
+        String flags = redisTemplate.execute((RedisCallback<String>) connection -> connection.serverCommands()
+                .getConfig("notify-keyspace-events").getProperty("notify-keyspace-events", ""));
+        assertTrue(KeyspaceNotifications.publishesExpired(flags), flags);
+
+        var products = (NearCache) cacheManager.getCache("products");
+        productService.getProduct("P004");
+        assertNotNull(products.getLocalCache().getIfPresent("P004"));
+
+        // Redis expires the backing key and its expired event drops the local copy
+        redisTemplate.expire("cache:products::P004", Duration.ofMillis(1));
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (products.getLocalCache().getIfPresent("P004") != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertNull(products.getLocalCache().getIfPresent("P004"));
+    }
+
+    @Test
+    void binaryCodec() {
+        Product product = Product.builder()
+                .id("P005")
+                .name("Sample")
+                .price(20_000L)
+                .build();
+        productService.save(product);
+
+        byte[] raw = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get("cache:products::P005".getBytes()));
+        assertEquals(CodecRegistry.MAGIC, raw[0]);
+
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(
+                "cache:products::P006".getBytes(),
+                new JdkSerializationRedisSerializer().serialize(Product.builder().id("P006").name("Legacy").build())));
+        Product legacy = cacheManager.getCache("products").get("P006", Product.class);
+        assertEquals("Legacy", legacy.getName());
+
+        // a value from a newer codec version, as an older node sees it during a rolling upgrade
+        redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(
+                "cache:products::P007".getBytes(), new byte[]{CodecRegistry.MAGIC, 2, 99, 1, 2, 3}));
+        assertNull(cacheManager.getCache("products").get("P007"));
+
+        // corrupt string lengths: wrapping past Integer.MAX_VALUE, negative, and past the end of the value
+        for (long length : new long[]{1L << 32, -5, Integer.MAX_VALUE}) {
+            BinaryOutput output = new BinaryOutput(16);
+            output.writeVarLong(length);
+            BinaryInput input = new BinaryInput(output.toByteArray(), 0);
+            assertThrows(SerializationException.class, input::readString);
+        }
+
+        Order order = new Order("O-1", 1000L);
+        RecordId id = orderStreamOperations.add(ObjectRecord.create("orders-codec-test", order));
+        List<ObjectRecord<String, Order>> records = orderStreamOperations.range(Order.class, "orders-codec-test",
+                org.springframework.data.domain.Range.closed(id.getValue(), id.getValue()));
+        assertEquals(order, records.get(0).getValue());
+
+        redisTemplate.delete(List.of("cache:products::P005", "cache:products::P006", "cache:products::P007",
+                "orders-codec-test"));
+    }
+
+    @Test
+    void bufferedOrderPublisher() {
+        List<CompletableFuture<RecordId>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(bufferedOrderPublisher.publish(new Order(UUID.randomUUID().toString(), 1000L)));
+        }
+
+        Set<RecordId> ids = new HashSet<>();
+        for (CompletableFuture<RecordId> future : futures) {
+            ids.add(future.join());
+        }
+        assertEquals(1000, ids.size());
+    }
+
+    @Test
+    void bulkRepository() {
+        Product single = Product.builder().id("B-0").name("Bulk").price(1_000L).ttl(60L).build();
+        productRepository.save(single);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 1200; i++) {
+            products.add(Product.builder().id("B-" + i).name("Bulk").price(1_000L).ttl(i % 2 == 0 ? 60L : null).build());
+        }
+        productRepository.saveAll(products);
+
+        Map<Object, Object> expected = new HashMap<>(redisTemplate.opsForHash().entries("products:B-0"));
+        Map<Object, Object> actual = new HashMap<>(redisTemplate.opsForHash().entries("products:B-2"));
+        expected.remove("id");
+        actual.remove("id");
+        assertEquals(expected, actual);
+        assertTrue(redisTemplate.getExpire("products:B-2") > 0);
+        assertEquals(-1L, redisTemplate.getExpire("products:B-1"));
+        assertTrue(redisTemplate.opsForSet().isMember("products", "B-1200"));
+
+        List<String> ids = List.of("B-0", "B-1", "B-2", "missing");
+        List<Product> found = productRepository.findAllById(ids);
+        assertEquals(3, found.size());
+        assertEquals(productRepository.findById("B-1").get(), found.get(1));
+        assertEquals("B-2", found.get(2).getId());
+
+        productRepository.deleteAll(productRepository.findAllById(ids));
+        productRepository.deleteAll(products);
+    }
+
+    @Test
+    void metrics() {
+        productService.getProduct("P007");
+        productService.getProduct("P007");
+        productService.remove("P007");
+
+        assertNotNull(meterRegistry.find("cache.gets").tags("cache", "products", "result", "miss").functionCounter());
+        assertTrue(meterRegistry.find("cache.gets").tags("cache", "products.l1", "result", "hit").functionCounter().count() > 0);
+        assertNotNull(meterRegistry.find("cache.puts").tags("cache", "scores").functionCounter());
+        assertTrue(meterRegistry.find("cache.redis.latency").tags("cache", "products", "operation", "get").timer().count() > 0);
+
+        orderStreamOperations.add(ObjectRecord.create("orders", new Order(UUID.randomUUID().toString(), 1000L)));
+        orderStreamMetrics.refresh();
+        assertNotNull(meterRegistry.find("orders.stream.pending").tags("stream", "orders", "group", "my-group").gauge());
+        assertNotNull(meterRegistry.find("orders.stream.lag").gauge());
+        assertNotNull(meterRegistry.find("orders.processing").timer());
+        assertNotNull(meterRegistry.find("lettuce.command.completion").tags("command", "XINFO").timer());
+    }
+
+    @Test
+    void cacheStampede() throws Exception {
+        RedisCache products = ((NearCache) cacheManager.getCache("products")).getRemoteCache();
+        assertInstanceOf(StampedeProtectedCache.class, products);
+
+        AtomicInteger loads = new AtomicInteger();
+        Callable<Product> loader = () -> {
+            loads.incrementAndGet();
+            Thread.sleep(200);
+            return Product.builder().id("P008").name("Slow").build();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Product>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(() -> products.get("P008", loader)));
+        }
+        for (Future<Product> future : futures) {
+            assertEquals("Slow", future.get().getName());
+        }
+        executor.shutdown();
+        assertEquals(1, loads.get());
+
+        redisTemplate.opsForValue().set("cache:lease:products::P009", "other-node", Duration.ofSeconds(5));
+        CompletableFuture.runAsync(() -> products.put("P009", Product.builder().id("P009").name("Remote").build()),
+                CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+        assertEquals("Remote", products.get("P009", () -> Product.builder().id("P009").name("Local").build()).getName());
+
+        products.evict("P008");
+        products.evict("P009");
+        redisTemplate.delete("cache:lease:products::P009");
+    }
+
+    @Test
+    void productIndex() throws InterruptedException {
+        String keyspaceEvents = redisTemplate.execute((RedisCallback<String>) connection -> {
+            String previous = connection.serverCommands().getConfig("notify-keyspace-events")
+                    .getProperty("notify-keyspace-events", "");
+            connection.serverCommands().setConfig("notify-keyspace-events", "Ex");
+            return previous;
+        });
+        try {
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                products.add(Product.builder().id("I-" + i).name("Index " + (char) ('a' + i)).price(100L * i).build());
+            }
+            // the pipelined index updates find no script, reload it and write the chunk again
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.scriptingCommands().scriptFlush();
+                return null;
+            });
+            productRepository.saveAll(products);
+            productRepository.save(Product.builder().id("I-20").name("Other").price(10_000L).ttl(1L).build());
+
+            Page<Product> page = productRepository.findByPriceBetween(500, 1500, PageRequest.of(1, 4));
+            assertEquals(11, page.getTotalElements());
+            assertEquals(List.of("I-9", "I-10", "I-11", "I-12"), page.map(Product::getId).getContent());
+            Page<Product> descending = productRepository.findByPriceBetween(500, 1500,
+                    PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price")));
+            assertEquals(List.of("I-15", "I-14"), descending.map(Product::getId).getContent());
+
+            assertEquals(20, productRepository.findByNameStartingWith("Index ", PageRequest.of(0, 100)).getTotalElements());
+            assertEquals("I-2", productRepository.findByNameStartingWith("Index c", PageRequest.of(0, 10)).getContent().get(0).getId());
+            assertEquals(List.of("I-20", "I-19"), productRepository.findMostExpensive(2).stream().map(Product::getId).toList());
+
+            productRepository.save(Product.builder().id("I-2").name("Renamed").price(100_000L).build());
+            assertEquals(19, productRepository.findByNameStartingWith("Index ", PageRequest.of(0, 100)).getTotalElements());
+            assertEquals("I-2", productRepository.findMostExpensive(1).get(0).getId());
+
+            productRepository.deleteById("I-2");
+            assertNull(redisTemplate.opsForZSet().score("products:idx:price", "I-2"));
+
+            long deadline = System.currentTimeMillis() + 5_000L;
+            while (redisTemplate.opsForZSet().score("products:idx:price", "I-20") != null
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertNull(redisTemplate.opsForZSet().score("products:idx:price", "I-20"));
+            assertFalse(redisTemplate.opsForHash().hasKey("products:idx:name:members", "I-20"));
+
+            productRepository.deleteAll(products);
+            assertEquals(0, productRepository.findByNameStartingWith("Index ", PageRequest.of(0, 100)).getTotalElements());
+        } finally {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.serverCommands().setConfig("notify-keyspace-events", keyspaceEvents);
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void hotKeyDecay() {
+        redisTemplate.delete(List.of("cache:hot:products", "{cache:hot:products}:decay"));
+        redisTemplate.opsForZSet().add("cache:hot:products", "D-1", 100);
+
+        hotKeyTracker.record("products", "D-1");
+        hotKeyTracker.flush();
+        assertEquals(51.0, redisTemplate.opsForZSet().score("cache:hot:products", "D-1"));
+
+        // within the same interval the lease is taken, so only the new count is added
+        hotKeyTracker.record("products", "D-1");
+        hotKeyTracker.flush();
+        assertEquals(52.0, redisTemplate.opsForZSet().score("cache:hot:products", "D-1"));
+
+        redisTemplate.opsForZSet().remove("cache:hot:products", "D-1");
+        redisTemplate.delete("{cache:hot:products}:decay");
+    }
+
+    @Test
+    void cacheWarmup() {
+        NearCache products = (NearCache) cacheManager.getCache("products");
+        productService.getProduct("W-1");
+        productService.getProduct("W-1");
+        productService.getProduct("W-2");
+        hotKeyTracker.flush();
+
+        Set<String> hot = redisTemplate.opsForZSet().reverseRange("cache:hot:products", 0, -1);
+        assertThat(hot, hasItems("W-1", "W-2"));
+        assertTrue(redisTemplate.opsForZSet().score("cache:hot:products", "W-1")
+                > redisTemplate.opsForZSet().score("cache:hot:products", "W-2"));
+
+        products.getLocalCache().invalidateAll();
+        cacheWarmer.warmUp();
+        assertEquals(CacheWarmer.State.DONE, cacheWarmer.getState());
+        assertEquals("W-1", ((Product) products.getLocalCache().getIfPresent("W-1").get()).getId());
+        assertNotNull(products.getLocalCache().getIfPresent("W-2"));
+
+        productService.remove("W-1");
+        productService.remove("W-2");
+        redisTemplate.opsForZSet().remove("cache:hot:products", "W-1", "W-2");
+    }
+
+    @Test
+    void connectionTopology() {
+        assertNotSame(redisConnectionFactory, pubSubConnectionFactory);
+        assertTrue(redisConnectionFactory.getShareNativeConnection());
+
+        redisTemplate.execute(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                operations.opsForValue().set("topology", "pooled");
+                return operations.exec();
+            }
+        });
+        assertEquals("pooled", redisTemplate.opsForValue().get("topology"));
+
+        assertTrue(meterRegistry.find("redis.connection.acquire").tags("role", "pooled").timer().count() > 0);
+        assertTrue(meterRegistry.find("redis.connection.acquire").tags("role", "pubsub").timer().count() > 0);
+        redisTemplate.delete("topology");
+    }
+
+    @Test
+    void cacheRegionClear() throws Exception {
+        Cache scores = cacheManager.getCache("scores");
+        for (int i = 0; i < 2_500; i++) {
+            scores.put("S-" + i, Product.builder().id("S-" + i).name("Score").price(1L).build());
+        }
+        long ttl = redisTemplate.getExpire("cache:scores::S-0", TimeUnit.SECONDS);
+        assertThat(ttl, allOf(greaterThanOrEqualTo(290L), lessThanOrEqualTo(330L)));
+
+        var job = cacheRegionManager.clear("scores");
+        assertEquals(CacheRegionManager.State.DONE, job.getResult().get(10, TimeUnit.SECONDS));
+        assertEquals(2_500L, job.getUnlinked());
+        assertNull(scores.get("S-0"));
+        assertFalse(redisTemplate.hasKey("cache:scores::S-2499"));
+
+        assertThrows(IllegalArgumentException.class, () -> cacheRegionManager.clear("unknown"));
+    }
+
+    @Test
+    void productScripts() {
+        productRepository.saveAll(List.of(
+                Product.builder().id("L-1").name("Script").price(10_000L).stock(5L).build(),
+                Product.builder().id("L-2").name("Script").price(20_000L).stock(1L).build()));
+        productService.getProduct("L-1");
+        assertTrue(redisTemplate.hasKey("cache:products::L-1"));
+
+        assertFalse(productRepository.compareAndSetPrice("L-1", 9_000L, 11_000L));
+        assertTrue(productRepository.compareAndSetPrice("L-1", 10_000L, 11_000L));
+        assertFalse(redisTemplate.hasKey("cache:products::L-1"));
+        assertEquals(11_000L, productService.getProduct("L-1").getPrice());
+        assertEquals(11_000.0, redisTemplate.opsForZSet().score("products:idx:price", "L-1"));
+        assertFalse(productRepository.updatePrice("L-missing", 1L));
+
+        var rejected = productRepository.decrementStock(Map.of("L-1", 2L, "L-2", 2L));
+        assertFalse(rejected.applied());
+        assertEquals(Map.of("L-1", 5L, "L-2", 1L), rejected.stock());
+
+        // the reply to a flushed script cache is NOSCRIPT; the registry reloads and retries
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+        var applied = productRepository.decrementStock(Map.of("L-1", 2L, "L-2", 1L));
+        assertTrue(applied.applied());
+        assertEquals(Map.of("L-1", 3L, "L-2", 0L), applied.stock());
+        assertEquals(0L, productRepository.findById("L-2").orElseThrow().getStock());
+        assertTrue(meterRegistry.get("redis.scripts.reloads").tag("script", "product-decrement-stock").counter()
+                .count() >= 1);
+        assertNotNull(scriptRegistry.getScripts().get("product-set-price"));
+
+        assertThrows(IllegalArgumentException.class, () -> productRepository.decrementStock(Map.of("L-1", -5L)));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.decrementStock(Map.of("L-1", 0L)));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.decrementStock(Map.of()));
+        assertEquals(3L, productRepository.findById("L-1").orElseThrow().getStock());
+
+        productRepository.deleteAllById(List.of("L-1", "L-2"));
+    }
+
+    @Test
+    void sellerLocator() {
+        sellerLocator.put("Loc A", 106.822695, -6.177456);
+        sellerLocator.put("Loc B", 106.821016, -6.174598);
+
+        List<Seller> sellers = sellerLocator.radius(106.821922, -6.175491, 0.5, 10);
+        assertThat(sellers.stream().map(Seller::name).toList(), hasItems("Loc A", "Loc B"));
+        long searches = sellerLocator.getRedisSearches();
+
+        // a nearby point in the same cell and radius bucket is refined from the cached superset
+        sellers = sellerLocator.radius(106.8230, -6.1780, 0.3, 10);
+        assertEquals(searches, sellerLocator.getRedisSearches());
+        assertEquals(List.of("Loc A"), sellers.stream().map(Seller::name).filter(name -> name.startsWith("Loc ")).toList());
+        assertThat(sellers.get(0).distance(), lessThan(0.1));
+
+        List<Seller> boxed = sellerLocator.box(106.821922, -6.175491, 1, 1, 10);
+        assertThat(boxed.stream().map(Seller::name).toList(), hasItems("Loc A", "Loc B"));
+
+        // moving a seller into the cell drops the cached superset
+        sellerLocator.put("Loc C", 107.5, -6.9);
+        sellerLocator.radius(106.821922, -6.175491, 1, 10);
+        searches = sellerLocator.getRedisSearches();
+        sellerLocator.put("Loc C", 106.8219, -6.1755);
+        sellers = sellerLocator.radius(106.821922, -6.175491, 1, 10);
+        assertEquals(searches + 1, sellerLocator.getRedisSearches());
+        assertEquals("Loc C", sellers.get(0).name());
+
+        sellerLocator.remove("Loc A");
+        sellerLocator.remove("Loc B");
+        sellerLocator.remove("Loc C");
+        assertTrue(sellerLocator.radius(106.821922, -6.175491, 1, 10).stream()
+                .noneMatch(seller -> seller.name().startsWith("Loc ")));
+    }
+
+    @Test
+    void trafficCounter() {
+        HyperLogLogOperations<String, String> operations = redisTemplate.opsForHyperLogLog();
+        long now = System.currentTimeMillis();
+        var local = new HyperLogLog();
+        List<String> homeVisitors = new ArrayList<>();
+        List<String> cartVisitors = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            trafficCounter.record("test-home", "v-" + i, now);
+            homeVisitors.add("v-" + i);
+            local.add("v-" + i);
+        }
+        for (int i = 10_000; i < 30_000; i++) {
+            trafficCounter.record("test-cart", "v-" + i, now);
+            cartVisitors.add("v-" + i);
+        }
+        operations.add("test:traffics:home", homeVisitors.toArray(String[]::new));
+        operations.add("test:traffics:cart", cartVisitors.toArray(String[]::new));
+        trafficCounter.flush();
+
+        // the merged registers count exactly like the visitors sent one by one
+        Instant at = Instant.ofEpochMilli(now);
+        long home = operations.size("test:traffics:home");
+        assertEquals(home, trafficCounter.count("test-home", TrafficCounter.Interval.MINUTE, at, at));
+        assertEquals(home, trafficCounter.count("test-home", TrafficCounter.Interval.DAY, at, at));
+        assertEquals(operations.size("test:traffics:home", "test:traffics:cart"),
+                trafficCounter.count(List.of("test-home", "test-cart"), TrafficCounter.Interval.HOUR, at, at));
+        assertThrows(IllegalArgumentException.class, () -> trafficCounter.count("test-home",
+                TrafficCounter.Interval.MINUTE, at.minus(Duration.ofDays(90)), at));
+        assertThat((double) local.estimate(), closeTo(home, 1));
+        assertThat((double) home, closeTo(20_000, 20_000 * 0.03));
+
+        String minuteKey = "traffics:test-home:minute:" + TrafficCounter.Interval.MINUTE.start(now);
+        assertTrue(redisTemplate.getExpire(minuteKey, TimeUnit.SECONDS) > 0);
+
+        List<String> keys = new ArrayList<>(List.of("test:traffics:home", "test:traffics:cart"));
+        for (TrafficCounter.Interval interval : TrafficCounter.Interval.values()) {
+            String suffix = ":" + interval.name().toLowerCase() + ":" + interval.start(now);
+            keys.add("traffics:test-home" + suffix);
+            keys.add("traffics:test-cart" + suffix);
+        }
+        redisTemplate.delete(keys);
+    }
 }
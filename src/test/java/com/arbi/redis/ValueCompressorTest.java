@@ -0,0 +1,161 @@
+package com.arbi.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ValueCompressorTest {
+
+    private static final int THRESHOLD = 512;
+
+    @Autowired
+    private CodecRedisSerializer codecRedisSerializer;
+
+    @Test
+    void lzfRoundTrip() {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 2, 3, 31, 32, 33, 264, 265, 8191, 8192, 8193, 100_000}) {
+            assertLzfRoundTrip(text(size));
+            assertLzfRoundTrip(randomBytes(random, size));
+            // one long run, decoded through back references that overlap what they write
+            assertLzfRoundTrip(new byte[size]);
+        }
+    }
+
+    @Test
+    void threshold() {
+        for (CompressionAlgorithm algorithm : CompressionAlgorithm.values()) {
+            var compressor = new ValueCompressor(algorithm, THRESHOLD, 6);
+
+            byte[] below = text(THRESHOLD - 1);
+            assertSame(below, compressor.compress(below));
+
+            byte[] at = text(THRESHOLD);
+            byte[] compressed = compressor.compress(at);
+            assertTrue(ValueCompressor.isCompressed(compressed), algorithm.name());
+            assertEquals(algorithm.id(), compressed[1]);
+            assertTrue(compressed.length < at.length);
+            assertArrayEquals(at, compressor.decompress(compressed));
+
+            byte[] large = text(1_000_000);
+            assertArrayEquals(large, compressor.decompress(compressor.compress(large)));
+        }
+    }
+
+    @Test
+    void plainAndCompressedCoexist() {
+        byte[] plain = text(100);
+        byte[] lzf = new ValueCompressor(CompressionAlgorithm.LZF, THRESHOLD, 6).compress(text(2_000));
+        byte[] deflate = new ValueCompressor(CompressionAlgorithm.DEFLATE, THRESHOLD, 6).compress(text(3_000));
+
+        // whatever is configured now, or nothing, reads every value by its header
+        for (CompressionAlgorithm algorithm : new CompressionAlgorithm[]{null, CompressionAlgorithm.LZF, CompressionAlgorithm.DEFLATE}) {
+            var compressor = new ValueCompressor(algorithm, THRESHOLD, 6);
+            assertSame(plain, compressor.decompress(plain));
+            assertArrayEquals(text(2_000), compressor.decompress(lzf));
+            assertArrayEquals(text(3_000), compressor.decompress(deflate));
+        }
+        assertNull(new ValueCompressor(null, THRESHOLD, 6).decompress(null));
+    }
+
+    @Test
+    void incompressible() {
+        byte[] random = randomBytes(new Random(7), 4_096);
+        for (CompressionAlgorithm algorithm : CompressionAlgorithm.values()) {
+            var compressor = new ValueCompressor(algorithm, THRESHOLD, 6);
+            assertSame(random, compressor.compress(random), algorithm.name());
+            assertFalse(ValueCompressor.isCompressed(compressor.compress(random)));
+        }
+        assertLzfRoundTrip(random);
+    }
+
+    @Test
+    void corruptInput() {
+        for (CompressionAlgorithm algorithm : CompressionAlgorithm.values()) {
+            var compressor = new ValueCompressor(algorithm, THRESHOLD, 6);
+            byte[] compressed = compressor.compress(text(5_000));
+
+            for (int length = 7; length < compressed.length; length += Math.max(1, compressed.length / 20)) {
+                byte[] truncated = Arrays.copyOf(compressed, length);
+                assertThrows(SerializationException.class, () -> compressor.decompress(truncated),
+                        algorithm + " truncated to " + length);
+            }
+
+            byte[] oversized = compressed.clone();
+            oversized[2] = 0x3F;
+            assertThrows(SerializationException.class, () -> compressor.decompress(oversized));
+
+            byte[] negative = compressed.clone();
+            negative[2] = (byte) 0x80;
+            assertThrows(SerializationException.class, () -> compressor.decompress(negative));
+        }
+
+        var compressor = new ValueCompressor(null, THRESHOLD, 6);
+        // unknown algorithm
+        assertThrows(SerializationException.class,
+                () -> compressor.decompress(new byte[]{ValueCompressor.MAGIC, 99, 0, 0, 0, 1, 0}));
+        // an LZF back reference to before the start of the output
+        assertThrows(SerializationException.class,
+                () -> compressor.decompress(new byte[]{ValueCompressor.MAGIC, CompressionAlgorithm.LZF.id(), 0, 0, 0, 3, 0x20, 5}));
+        // not a DEFLATE stream
+        byte[] garbage = new byte[64];
+        Arrays.fill(garbage, (byte) 0xFF);
+        garbage[0] = ValueCompressor.MAGIC;
+        garbage[1] = CompressionAlgorithm.DEFLATE.id();
+        garbage[2] = 0;
+        garbage[3] = 0;
+        garbage[4] = 0x01;
+        garbage[5] = 0;
+        assertThrows(SerializationException.class, () -> compressor.decompress(garbage));
+    }
+
+    @Test
+    void serializer() {
+        var compressing = new CompressingRedisSerializer(codecRedisSerializer,
+                new ValueCompressor(CompressionAlgorithm.LZF, THRESHOLD, 6));
+        var plain = new CompressingRedisSerializer(codecRedisSerializer, new ValueCompressor(null, THRESHOLD, 6));
+        Product large = Product.builder().id("C-1").name(new String(text(4_000), StandardCharsets.UTF_8)).price(1_000L).build();
+        Product small = Product.builder().id("C-2").name("Small").price(10L).build();
+
+        byte[] largeBytes = compressing.serialize(large);
+        assertTrue(ValueCompressor.isCompressed(largeBytes));
+        assertEquals(large, compressing.deserialize(largeBytes));
+        assertFalse(ValueCompressor.isCompressed(compressing.serialize(small)));
+        assertEquals(small, compressing.deserialize(compressing.serialize(small)));
+
+        // values written before compression was turned on, and after it was turned off
+        assertEquals(small, compressing.deserialize(plain.serialize(small)));
+        assertEquals(large, compressing.deserialize(plain.serialize(large)));
+        assertEquals(large, plain.deserialize(largeBytes));
+    }
+
+    private static void assertLzfRoundTrip(byte[] input) {
+        byte[] compressed = LzfCompressor.compress(input);
+        byte[] output = new byte[input.length];
+        LzfCompressor.decompress(compressed, 0, output);
+        assertArrayEquals(input, output, () -> input.length + " bytes");
+    }
+
+    private static byte[] text(int size) {
+        byte[] pattern = "{\"id\":\"P001\",\"name\":\"Product\",\"price\":1000}".getBytes(StandardCharsets.UTF_8);
+        byte[] text = new byte[size];
+        for (int i = 0; i < size; i++) {
+            text[i] = pattern[i % pattern.length];
+        }
+        return text;
+    }
+
+    private static byte[] randomBytes(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}